@@ -0,0 +1,30 @@
+/*
+ * File: Animation.java
+ * ---------------------
+ * This interface is implemented by the objects that can be animated by the
+ * Animator. An animation is played one frame at a time, each frame tells the
+ * Animator how long to wait before the next one.
+ */
+
+public interface Animation {
+
+	/** Value returned by step() once the animation is over */
+	public static final int FINISHED = -1;
+
+	/**
+	 * method: start();
+	 * 
+	 * Prepares the animation, called right before the first frame.
+	 */
+	public void start();
+
+	/**
+	 * method: step();
+	 * 
+	 * Draws the next frame of the animation.
+	 * 
+	 * @return delay before the next frame in milliseconds, or FINISHED
+	 */
+	public int step();
+
+}
@@ -0,0 +1,185 @@
+/*
+ * File: Animator.java
+ * ---------------------
+ * This class plays all the animations in breakout on a single thread. Instead
+ * of every animated object sleeping in a thread of its own, each frame is
+ * scheduled on that thread after the delay requested by the previous one.
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import acm.graphics.GObject;
+import acm.graphics.GRectangle;
+
+public final class Animator {
+
+	private Animator() {
+
+	}
+
+	/**
+	 * method: play();
+	 * 
+	 * Starts the animation from the beginning. If the animation is already
+	 * playing, the old run is dropped before its next frame.
+	 * 
+	 * @param animation : The animation to play
+	 */
+	public static void play(Animation animation) {
+
+		Frame frame = new Frame(animation);
+
+		playing.put(animation, frame);
+
+		scheduler.execute(frame);
+
+	}
+
+	/**
+	 * method: stop();
+	 * 
+	 * Stops the animation before its next frame.
+	 * 
+	 * @param animation : The animation to stop
+	 */
+	public static void stop(Animation animation) {
+
+		playing.remove(animation);
+
+	}
+
+	/**
+	 * method: stopAll();
+	 * 
+	 * Stops all the animations before their next frames.
+	 */
+	public static void stopAll() {
+
+		playing.clear();
+
+	}
+
+	/**
+	 * method: awaitFrames();
+	 * 
+	 * Waits until the frame being drawn on the animation thread, if there is one,
+	 * is done. After stopAll() nothing touches the animated objects any more once
+	 * this returns, so they can be reset and reused.
+	 */
+	public static void awaitFrames() {
+
+		try {
+
+			scheduler.submit(NOTHING).get();
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+		} catch (ExecutionException e) {
+
+			e.printStackTrace();
+
+		}
+
+	}
+
+	/**
+	 * method: isPlaying();
+	 * 
+	 * @param animation : The animation
+	 * @return true if the animation hasn't finished yet
+	 */
+	public static boolean isPlaying(Animation animation) {
+
+		return playing.containsKey(animation);
+
+	}
+
+	/**
+	 * This class is one run of an animation, it reschedules itself until the
+	 * animation finishes or is replaced by another run.
+	 */
+	private static class Frame implements Runnable {
+
+		public Frame(Animation animation) {
+
+			this.animation = animation;
+
+		}
+
+		public void run() {
+
+			if (playing.get(animation) != this) return;
+
+			int delay = Animation.FINISHED;
+
+			/* Only the region of an animated object is redrawn after its frame. */
+			GObject object = animation instanceof GObject ? (GObject) animation : null;
+			PlayfieldCanvas playfield = object != null ? PlayfieldCanvas.of(object) : null;
+			GRectangle before = playfield != null ? playfield.beginChange(object) : null;
+
+			try {
+
+				if (!started) {
+
+					animation.start();
+					started = true;
+
+				}
+
+				delay = animation.step();
+
+			} catch (RuntimeException e) {
+
+				e.printStackTrace();
+
+			} finally {
+
+				if (playfield != null) playfield.endChange(object, before);
+
+			}
+
+			if (delay == Animation.FINISHED) playing.remove(animation, this);
+			else scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+
+		}
+
+		private Animation animation;
+
+		private boolean started;
+
+	}
+
+	/** Queued behind the current frame by awaitFrames() */
+	private static final Runnable NOTHING = new Runnable() {
+
+		public void run() {
+
+		}
+
+	};
+
+	/** The runs that are currently playing, one per animation */
+	private static Map<Animation, Frame> playing = new ConcurrentHashMap<Animation, Frame>();
+
+	private static ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "Animator");
+			thread.setDaemon(true);
+
+			return thread;
+
+		}
+
+	});
+
+}
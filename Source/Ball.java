@@ -7,7 +7,7 @@
 
 import acm.graphics.*;
 
-public class Ball extends GCompound implements Runnable {
+public class Ball extends GCompound implements Animation {
 
 	/** Spin animation parameters */
 	private static final int ANIMATION_FRAME_DELAY = 100;
@@ -26,23 +26,68 @@ public class Ball extends GCompound implements Runnable {
 
 	}
 
-	/*
-	 * @see java.lang.Runnable#run()
+	/**
+	 * method: addSprites();
+	 * 
+	 * Adds the sprites of all the frames of a ball of the given size to the atlas.
+	 * 
+	 * @param atlas    : The atlas being built
+	 * @param diameter : Diameter of the ball
 	 */
-	public void run() {
+	public static void addSprites(SpriteAtlas atlas, double diameter) {
+
+		for (int i = 0; i < NANIMATION_FRAMES; i++) {
+
+			atlas.add(imagePath(i), toPixels(diameter), toPixels(diameter));
+
+		}
+
+	}
+
+	/**
+	 * @see Animation#start()
+	 */
+	public void start() {
 
 		exit = false;
 
+	}
+
+	/**
+	 * @see Animation#step()
+	 */
+	public int step() {
+
+		if (exit) return FINISHED;
+
 		spin();
 
+		return ANIMATION_FRAME_DELAY;
+
+	}
+
+	/**
+	 * method: reset();
+	 * 
+	 * Shows the first frame again, so the ball can be reused for a new game. The
+	 * animation has to be stopped.
+	 */
+	public void reset() {
+
 		exit = true;
-		
+
+		ball[frame].setVisible(false);
+
+		frame = 0;
+
+		ball[frame].setVisible(true);
+
 	}
 
 	/**
 	 * method: exit();
 	 * 
-	 * Tells the thread to finish executing.
+	 * Tells the animation to finish.
 	 */
 	public void exit() {
 
@@ -57,11 +102,11 @@ public class Ball extends GCompound implements Runnable {
 	 */
 	private void makeBall() {
 
-		for (int i = 0; i < NANIMATION_FRAMES; i++) {
+		int size = toPixels(diameter);
 
-			ball[i] = new GImage("./images/ball/ball" + i + ".png");
+		for (int i = 0; i < NANIMATION_FRAMES; i++) {
 
-			ball[i].setSize(diameter, diameter);
+			ball[i] = new GImage(SpriteCache.get(imagePath(i), size, size));
 
 			add(ball[i]);
 			ball[i].setVisible(false);
@@ -73,37 +118,59 @@ public class Ball extends GCompound implements Runnable {
 	}
 
 	/**
-	 * method: spin();
+	 * method: imagePath();
+	 * 
+	 * Returns the path of the image of an animation frame.
 	 * 
-	 * Animates the ball, it's supposed to look like it's spinning.
+	 * @param frame : Number of the frame
+	 * @return the path of the image file
 	 */
-	private void spin() {
+	private static String imagePath(int frame) {
 
-		int frame = 0;
+		return "./images/ball/ball" + frame + ".png";
 
-		while (!exit) {
+	}
 
-			ball[frame].setVisible(false);
+	/**
+	 * method: toPixels();
+	 * 
+	 * Rounds the size of a sprite to whole pixels.
+	 * 
+	 * @param size : The size
+	 * @return the rounded size
+	 */
+	private static int toPixels(double size) {
 
-			frame++;
+		return (int) Math.round(size);
 
-			if (frame == NANIMATION_FRAMES) {
+	}
+
+	/**
+	 * method: spin();
+	 * 
+	 * Shows the next frame of the ball, it's supposed to look like it's spinning.
+	 */
+	private void spin() {
 
-				frame = 0;
+		ball[frame].setVisible(false);
 
-			}
+		frame++;
 
-			ball[frame].setVisible(true);
+		if (frame == NANIMATION_FRAMES) {
 
-			pause(ANIMATION_FRAME_DELAY);
+			frame = 0;
 
 		}
 
+		ball[frame].setVisible(true);
+
 	}
 
 	private GImage[] ball = new GImage[NANIMATION_FRAMES];
 
 	private double diameter;
 
+	private int frame;
+
 	private volatile boolean exit;
 }
\ No newline at end of file
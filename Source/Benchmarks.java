@@ -0,0 +1,599 @@
+/*
+ * File: Benchmarks.java
+ * ---------------------
+ * This program measures the code that runs on every step of the game and the
+ * highscore code: collision checks, simulation steps, paddle rebounds, the
+ * timer and score board, time formatting, the paddle animation, emblem
+ * polygons, highscore records and board snapshots. Every benchmark uses inputs
+ * made from a fixed seed, so two runs measure exactly the same work.
+ *
+ * Each benchmark is warmed up, then run for a number of rounds of a fixed
+ * length. The result is the time per operation and the bytes allocated per
+ * operation, measured with the allocation counter of the thread.
+ *
+ * Usage: java Benchmarks [name filter]
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class Benchmarks implements BreakoutConstants {
+
+	/** Seed of all the benchmark inputs */
+	private static final long SEED = 42;
+
+	/** Amount of prepared inputs, a power of two */
+	private static final int NINPUTS = 1024;
+
+	/** Length of the warm-up and of each measured round in milliseconds */
+	private static final long WARMUP_TIME = 1000;
+	private static final long ROUND_TIME = 500;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+
+		String filter = args.length > 0 ? args[0] : "";
+
+		System.out.printf("%-32s %12s %12s%n", "Benchmark", "ns/op", "B/op");
+
+		for (Benchmark benchmark : benchmarks()) {
+
+			if (benchmark.name.contains(filter)) measure(benchmark);
+		}
+	}
+
+	/**
+	 * method: measure();
+	 *
+	 * Warms up a benchmark, measures it and prints the results.
+	 *
+	 * @param benchmark : The benchmark
+	 */
+	private static void measure(Benchmark benchmark) {
+
+		benchmark.setUp();
+
+		runFor(benchmark, WARMUP_TIME);
+
+		double[] nanos = new double[ROUNDS];
+		double[] bytes = new double[ROUNDS];
+
+		for (int i = 0; i < ROUNDS; i++) {
+
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+
+			long operations = runFor(benchmark, ROUND_TIME);
+
+			nanos[i] = (double) (System.nanoTime() - start) / operations;
+			bytes[i] = (double) (allocatedBytes() - allocated) / operations;
+		}
+
+		System.out.printf("%-32s %12.1f %12.1f   (ns/op %.1f - %.1f)%n", benchmark.name, median(nanos), median(bytes),
+				min(nanos), max(nanos));
+	}
+
+	/**
+	 * method: runFor();
+	 *
+	 * Runs a benchmark in batches until the given time has passed.
+	 *
+	 * @param benchmark : The benchmark
+	 * @param millis    : How long to run it
+	 * @return amount of operations run
+	 */
+	private static long runFor(Benchmark benchmark, long millis) {
+
+		long end = System.nanoTime() + millis * 1000000;
+		long operations = 0;
+		int batch = 1;
+
+		while (System.nanoTime() < end) {
+
+			sink += benchmark.run(batch);
+			operations += batch;
+
+			if (batch < 1 << 16) batch <<= 1;
+		}
+
+		return operations;
+	}
+
+	/**
+	 * method: allocatedBytes();
+	 *
+	 * @return bytes allocated by the current thread so far, 0 if the JVM can't
+	 *         tell
+	 */
+	private static long allocatedBytes() {
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return 0;
+
+		return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static double median(double[] values) {
+
+		double[] sorted = values.clone();
+		java.util.Arrays.sort(sorted);
+
+		return sorted[sorted.length / 2];
+	}
+
+	private static double min(double[] values) {
+
+		double min = values[0];
+
+		for (double value : values) min = Math.min(min, value);
+
+		return min;
+	}
+
+	private static double max(double[] values) {
+
+		double max = values[0];
+
+		for (double value : values) max = Math.max(max, value);
+
+		return max;
+	}
+
+	/**
+	 * method: benchmarks();
+	 *
+	 * @return all the benchmarks
+	 */
+	private static List<Benchmark> benchmarks() {
+
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		/* One swept collision of the ball with a brick sized rectangle. */
+		benchmarks.add(new Benchmark("collision.sweepCircleVsRect") {
+
+			public void setUp() {
+
+				inputs = randomMovements();
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					double[] input = inputs[i & (NINPUTS - 1)];
+
+					result += Collision.sweepCircleVsRect(input[0], input[1], BALL_RADIUS, input[2], input[3], 200,
+							200, BRICK_WIDTH, BRICK_HEIGHT, normal);
+				}
+
+				return result;
+			}
+
+			private double[][] inputs;
+			private double[] normal = new double[2];
+		});
+
+		/* One swept collision of the ball with a full grid of bricks. */
+		benchmarks.add(new Benchmark("collision.gridSweep") {
+
+			public void setUp() {
+
+				inputs = randomMovements();
+
+				for (int cell = 0; cell < BrickGrid.NCELLS; cell++) grid.put(cell);
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					double[] input = inputs[i & (NINPUTS - 1)];
+
+					result += grid.sweep(input[0], input[1], BALL_RADIUS, input[2], input[3], normal);
+				}
+
+				return result;
+			}
+
+			private double[][] inputs;
+			private BrickGrid grid = new BrickGrid();
+			private double[] normal = new double[2];
+		});
+
+		/* One step of a whole game: paddle, ball, bricks, walls and the bottom border. */
+		benchmarks.add(new Benchmark("simulation.step") {
+
+			public void setUp() {
+
+				simulation = new Simulation(SEED, NO_LISTENER);
+				simulation.newGame();
+			}
+
+			public double run(int operations) {
+
+				GameState state = simulation.getState();
+
+				for (int i = 0; i < operations; i++) {
+
+					if (state.isOver()) {
+
+						simulation.newGame();
+						state = simulation.getState();
+					}
+
+					if (state.isServing()) simulation.serve();
+
+					simulation.setPaddleTarget(state.getBallX(1) + BALL_RADIUS);
+					simulation.step();
+				}
+
+				return state.getBallX(1);
+			}
+
+			private Simulation simulation;
+		});
+
+		/* One step in which the ball lands on the paddle and is rebounded. */
+		benchmarks.add(new Benchmark("simulation.paddleRebound") {
+
+			public void setUp() {
+
+				simulation = new Simulation(SEED, NO_LISTENER);
+				simulation.newGame();
+				simulation.serve();
+
+				offsets = new double[NINPUTS];
+
+				for (int i = 0; i < NINPUTS; i++) offsets[i] = random.nextDouble() * (PADDLE_WIDTH + BALL_DIAMETER);
+			}
+
+			public double run(int operations) {
+
+				GameState state = simulation.getState();
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					state.ballX = state.paddleX - BALL_DIAMETER + offsets[i & (NINPUTS - 1)];
+					state.ballY = GameState.PADDLE_Y - BALL_DIAMETER - 1;
+					state.velocityX = MIN_VELOCITY_X;
+					state.velocityY = INITIAL_VELOCITY_Y;
+
+					simulation.step();
+
+					result += state.velocityX;
+				}
+
+				return result;
+			}
+
+			private Simulation simulation;
+			private double[] offsets;
+		});
+
+		/* Formatting of the timer label and of the time highscores. */
+		benchmarks.add(new Benchmark("highscores.formatTime") {
+
+			public void setUp() {
+
+				times = new long[NINPUTS];
+
+				for (int i = 0; i < NINPUTS; i++) times[i] = random.nextInt(100 * 60 * 60 * 1000);
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					result += HighscoreList.formatTime(times[i & (NINPUTS - 1)]).length();
+				}
+
+				return result;
+			}
+
+			private long[] times;
+		});
+
+		/* One frame's timer update, the label only changes once per second. */
+		benchmarks.add(new Benchmark("hud.timer") {
+
+			public void setUp() {
+
+				timer = new HudLabel(HighscoreList.TIME_LENGTH);
+			}
+
+			public double run(int operations) {
+
+				for (int i = 0; i < operations; i++) {
+
+					time += 1000 / SIMULATION_RATE;
+
+					timer.setTime(time);
+				}
+
+				return time;
+			}
+
+			private HudLabel timer;
+			private long time;
+		});
+
+		/* One brick's score board update. */
+		benchmarks.add(new Benchmark("hud.score") {
+
+			public void setUp() {
+
+				scoreBoard = new HudLabel(6);
+			}
+
+			public double run(int operations) {
+
+				for (int i = 0; i < operations; i++) {
+
+					score = (score + 10) % 1000000;
+
+					scoreBoard.setNumber(score);
+				}
+
+				return score;
+			}
+
+			private HudLabel scoreBoard;
+			private long score;
+		});
+
+		/* One animation frame of the paddle, with a deflect every eighth frame. */
+		benchmarks.add(new Benchmark("paddle.frame") {
+
+			public void setUp() {
+
+				paddle = new Paddle(PADDLE_WIDTH, PADDLE_HEIGHT);
+				paddle.start();
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					if ((i & 7) == 0) paddle.requestDeflect();
+
+					result += paddle.step();
+				}
+
+				return result;
+			}
+
+			private Paddle paddle;
+		});
+
+		/* The vertices of an emblem polygon, computed with Math.cos/sin. */
+		benchmarks.add(new Benchmark("emblem.polygonMath") {
+
+			public void setUp() {
+
+				radii = randomRadii();
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+				double angleStep = 2 * Math.PI / EMBLEM_SIDES;
+
+				for (int i = 0; i < operations; i++) {
+
+					double radius = radii[i & (NINPUTS - 1)];
+					double angle = -Math.PI / 2;
+
+					for (int j = 0; j < EMBLEM_SIDES; j++) {
+
+						result += radius * Math.cos(angle) + radius * Math.sin(angle);
+
+						angle += angleStep;
+					}
+				}
+
+				return result;
+			}
+
+			private double[] radii;
+		});
+
+		/* The same vertices, read from the unit circle table. */
+		benchmarks.add(new Benchmark("emblem.polygonTable") {
+
+			public void setUp() {
+
+				radii = randomRadii();
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+				double[] vertices = UnitCircle.polygon(EMBLEM_SIDES);
+
+				for (int i = 0; i < operations; i++) {
+
+					double radius = radii[i & (NINPUTS - 1)];
+
+					for (int j = 0; j < EMBLEM_SIDES; j++) {
+
+						result += radius * vertices[2 * j] + radius * vertices[2 * j + 1];
+					}
+				}
+
+				return result;
+			}
+
+			private double[] radii;
+		});
+
+		/* Writing a highscore record and reading it back. */
+		benchmarks.add(new Benchmark("highscores.codec") {
+
+			public void setUp() {
+
+				entries = new ScoreEntry[NINPUTS];
+
+				for (int i = 0; i < NINPUTS; i++) {
+
+					entries[i] = new ScoreEntry("player" + i, random.nextInt(1000), System.currentTimeMillis(),
+							false, i);
+				}
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) {
+
+					buffer.clear();
+					entries[i & (NINPUTS - 1)].encode(buffer);
+					buffer.flip();
+
+					result += ScoreEntry.decode(buffer).getValue();
+				}
+
+				return result;
+			}
+
+			private ScoreEntry[] entries;
+			private ByteBuffer buffer = ByteBuffer.allocate(ScoreEntry.SIZE);
+		});
+
+		/* Copying the board of a full highscore store, as the score board does. */
+		benchmarks.add(new Benchmark("highscores.snapshot") {
+
+			public void setUp() {
+
+				try {
+
+					File file = File.createTempFile("highscores", ".dat");
+					file.deleteOnExit();
+
+					store = new HighscoreStore(file, false);
+
+				} catch (IOException e) {
+
+					e.printStackTrace();
+				}
+
+				for (int i = 0; i < MAX_HIGHSCORE_COUNT; i++) store.add("player", random.nextInt(1000));
+			}
+
+			public double run(int operations) {
+
+				double result = 0;
+
+				for (int i = 0; i < operations; i++) result += store.snapshot().size();
+
+				return result;
+			}
+
+			private HighscoreStore store;
+		});
+
+		return benchmarks;
+	}
+
+	/**
+	 * method: randomMovements();
+	 *
+	 * @return ball positions and movements around the brick grid, as arrays of
+	 *         {x, y, dx, dy}
+	 */
+	private static double[][] randomMovements() {
+
+		Random random = new Random(SEED);
+
+		double[][] inputs = new double[NINPUTS][];
+
+		for (int i = 0; i < NINPUTS; i++) {
+
+			inputs[i] = new double[] { random.nextDouble() * WIDTH,
+					BRICK_Y_OFFSET + random.nextDouble() * NBRICK_ROWS * (BRICK_HEIGHT + BRICK_SEP),
+					(random.nextDouble() * 2 - 1) * MAX_VELOCITY_X, (random.nextDouble() * 2 - 1) * MAX_VELOCITY_Y };
+		}
+
+		return inputs;
+	}
+
+	/**
+	 * method: randomRadii();
+	 *
+	 * @return NINPUTS polygon radii up to the size of the emblem
+	 */
+	private static double[] randomRadii() {
+
+		Random random = new Random(SEED);
+
+		double[] radii = new double[NINPUTS];
+
+		for (int i = 0; i < NINPUTS; i++) radii[i] = random.nextDouble() * EMBLEM_SIZE;
+
+		return radii;
+	}
+
+	/**
+	 * A benchmark: setUp() prepares its inputs, run() performs the given amount of
+	 * operations and returns something computed from them, so the work can't be
+	 * optimized away.
+	 */
+	private static abstract class Benchmark {
+
+		public Benchmark(String name) {
+
+			this.name = name;
+		}
+
+		public abstract void setUp();
+
+		public abstract double run(int operations);
+
+		protected Random random = new Random(SEED);
+
+		private String name;
+	}
+
+	/** Listener for simulations that aren't drawn */
+	private static final SimulationListener NO_LISTENER = new SimulationListener() {
+
+		public void paddleHit() {
+
+		}
+
+		public void brickDestroyed(int cell) {
+
+		}
+
+		public void runawayBrickChosen(int cell) {
+
+		}
+
+		public void runawayBrickHit(int angle) {
+
+		}
+
+		public void lifeLost() {
+
+		}
+	};
+
+	/** Collects the results of the benchmarks */
+	private static volatile double sink;
+
+}
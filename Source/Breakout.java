@@ -15,14 +15,16 @@ import acm.util.*;
 
 import java.awt.*;
 import java.awt.event.*;
-import java.nio.file.Files;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
+	/** Paddle target before the mouse moves, the simulation ignores it */
+	private static final double NO_MOUSE = -1;
+
 	public static void main() {
 		new Breakout().start();
 	}
@@ -33,15 +35,40 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 		setSize(APPLICATION_WIDTH, APPLICATION_HEIGHT);
 	}
 
+	/**
+	 * method: createGCanvas();
+	 * 
+	 * Breakout is drawn on a canvas that only redraws the regions that changed.
+	 * 
+	 * @see acm.program.GraphicsProgram#createGCanvas()
+	 */
+	protected GCanvas createGCanvas() {
+
+		return new PlayfieldCanvas();
+	}
+
+	/**
+	 * method: getPlayfield();
+	 * 
+	 * @return the canvas breakout is drawn on
+	 */
+	private PlayfieldCanvas getPlayfield() {
+
+		return (PlayfieldCanvas) getGCanvas();
+	}
+
 	/** Runs the Breakout program. */
 	public void run() {
 
-		while (menuPage != MenuPages.EXIT) {
+		while (menu.getPage() != MenuPages.EXIT) {
 
 			setupGame();
 			gameOver(startGame());
 			clearGame();
 		}
+
+		highscores.close();
+		highscoresTime.close();
 	}
 
 	/**
@@ -56,9 +83,7 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 			String fontName = "/fonts/main font.TTF";
 			InputStream is = Breakout.class.getResourceAsStream(fontName);
 			gameFontBase = Font.createFont(Font.TRUETYPE_FONT, is);
-
-			highscoresTime = new File("./files/time highscores.txt");
-			highscores = new File("./files/highscores.txt");
+			fonts = new FontCache(gameFontBase);
 
 		} catch (FontFormatException e) {
 
@@ -68,48 +93,37 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 			e.printStackTrace();
 		}
 
-		checkDataFile(highscores);
-		checkDataFile(highscoresTime);
+		highscoresTime = HighscoreStore.open(new File("./files/time highscores.dat"),
+				new File("./files/time highscores.txt"), true);
+		highscores = HighscoreStore.open(new File("./files/highscores.dat"), new File("./files/highscores.txt"),
+				false);
+
+		buildSpriteAtlas();
 
 		addKeyListeners(keyListener);
 	}
 
 	/**
-	 * method: checkDataFile();
-	 * 
-	 * A small check for the highscore file formats, not very effective but enough
-	 * to make sure the rest of the program works.
+	 * method: buildSpriteAtlas();
 	 * 
-	 * @param file : The file being checked.
+	 * Packs the sprites of the bricks, the ball and the paddle into one image.
 	 */
-	private void checkDataFile(File file) {
+	private void buildSpriteAtlas() {
 
-		List<String> lines = readDataFile(file);
+		SpriteAtlas atlas = new SpriteAtlas();
 
-		for (String line : lines) {
+		Brick.addSprites(atlas, BRICK_WIDTH, BRICK_HEIGHT);
+		Ball.addSprites(atlas, BALL_DIAMETER);
+		Paddle.addSprites(atlas, PADDLE_WIDTH, PADDLE_HEIGHT);
 
-			if (line.indexOf('|') < 0 || line.indexOf('-') < 0) {
-
-				clearDataFile(file);
-				break;
-
-			} else {
-
-				try {
-					Integer.parseInt(line.substring(line.indexOf('|') + 2));
-				} catch (NumberFormatException | NullPointerException e) {
-
-					clearDataFile(file);
-					break;
-				}
-			}
-		}
+		atlas.build();
 	}
 
 	/**
 	 * method: setupGame();
 	 * 
-	 * Creates and adds all the game elements to the window.
+	 * Adds all the game elements to the window. They are only created for the
+	 * first game, after that the ones of the previous game are reset and reused.
 	 */
 	private void setupGame() {
 
@@ -117,15 +131,23 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		menu();
 
+		long seed = System.nanoTime();
+
+		mouseX = NO_MOUSE;
+
+		simulation.newGame(seed);
+		state = simulation.getState();
+
+		replay.start(seed);
+
 		setPaddle();
 		setBricks();
 		setLives();
 		setBall();
 		setScoreBoard();
 		setTimer();
+		setGcOverlay();
 		setPause(false);
-
-		myRuntime.gc();
 	}
 
 	/**
@@ -135,86 +157,39 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void setBackground() {
 
-		background = new GImage("./images/background/breakout background.jpg");
+		if (background == null) {
+
+			background = new GImage(SpriteCache.get("./images/background/breakout background.jpg",
+					BreakoutConstants.WIDTH, BreakoutConstants.HEIGHT));
 
-		background.setSize(BreakoutConstants.WIDTH, BreakoutConstants.HEIGHT);
+			background.addMouseMotionListener(mouseMotionListener);
+		}
 
 		add(background, 0, 0);
 
-		background.addMouseMotionListener(mouseMotionListener);
+		getPlayfield().setBackdrop(background);
 	}
 
 	/**
 	 * method: setBricks();
 	 * 
-	 * Creates the rows of bricks for the game.
+	 * Creates a Brick object for every brick of the game, or resets the ones of
+	 * the previous game.
 	 */
 	private void setBricks() {
 
-		bricks = new Brick[NBRICK_ROWS * NBRICKS_PER_ROW];
-
-		maxScore = 0;
 		runawayBrick = null;
-		Color currColor = null;
-		Color additionalRowColor = BRICK_COLORS[NBRICK_COLORS - 1];
-
-		final double brickDistanceY = BRICK_HEIGHT + BRICK_SEP;
-
-		double y = 0;
-
-		/* Amount of consecutive rows of the same color. Can't be zero. */
-		int sameColorRows = NBRICK_ROWS / NBRICK_COLORS;
-		sameColorRows += sameColorRows > 0 ? 0 : 1;
-
-		int mainRows = sameColorRows * NBRICK_COLORS;
-
-		/*
-		 * The brick rows are filled with this for loop.
-		 */
-		for (int i = 0; i < NBRICK_ROWS; i++) {
-
-			if (i < mainRows) currColor = BRICK_COLORS[i / sameColorRows];
-			else currColor = additionalRowColor;
-
-			y = BRICK_Y_OFFSET + i * brickDistanceY;
-			fillBrickRow(y, currColor, i);
-		}
-
-	}
-
-	/**
-	 * method: fillBrickRow();
-	 * 
-	 * Creates a row of Brick objects of the given color at the given y coordinate.
-	 * 
-	 * @param y         : y coordinate of the bricks
-	 * @param color     : color of the brick
-	 * @param rowNumber : used for storing references to the brick objects
-	 */
-	private void fillBrickRow(double y, Color color, int rowNumber) {
-
-		final double brickDistanceX = BRICK_WIDTH + BRICK_SEP;
-		final int colorIndex = getBrickColorIndex(color);
-		final int colorScoreMultiplier = 2 * NBRICK_COLORS - colorIndex;
-
-		double x = 0;
-
-		Brick brick = null;
-
-		for (int i = 0; i < NBRICKS_PER_ROW; i++) {
-
-			x = BRICK_X_OFFSET + i * brickDistanceX;
 
-			brick = new Brick(BRICK_WIDTH, BRICK_HEIGHT, colorIndex);
+		if (bricks == null) bricks = new Brick[BrickGrid.NCELLS];
 
-			Thread fidget = new Thread(brick);
-			fidget.start();
+		for (int cell = 0; cell < BrickGrid.NCELLS; cell++) {
 
-			add(brick, x, y);
+			if (bricks[cell] == null) bricks[cell] = new Brick(BRICK_WIDTH, BRICK_HEIGHT, state.getBrickColor(cell));
+			else bricks[cell].reset(state.getBrickColor(cell));
 
-			bricks[i + rowNumber * NBRICKS_PER_ROW] = brick;
+			Animator.play(bricks[cell]);
 
-			maxScore += colorScoreMultiplier;
+			add(bricks[cell], BrickGrid.getX(cell), BrickGrid.getY(cell));
 		}
 	}
 
@@ -226,13 +201,12 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void setPaddle() {
 
-		paddle = new Paddle(PADDLE_WIDTH, PADDLE_HEIGHT);
+		if (paddle == null) paddle = new Paddle(PADDLE_WIDTH, PADDLE_HEIGHT);
+		else paddle.reset();
 
-		add(paddle, (BreakoutConstants.WIDTH - PADDLE_WIDTH) / 2,
-				BreakoutConstants.HEIGHT - PADDLE_Y_OFFSET - PADDLE_HEIGHT);
+		add(paddle, state.getPaddleX(1), GameState.PADDLE_Y);
 
-		Thread levitation = new Thread(paddle);
-		levitation.start();
+		Animator.play(paddle);
 	}
 
 	/**
@@ -242,7 +216,9 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void setBall() {
 
-		ball = new Ball(BALL_DIAMETER);
+		if (ball == null) ball = new Ball(BALL_DIAMETER);
+		else ball.reset();
+
 		placeBall();
 	}
 
@@ -250,28 +226,37 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 * method: placeBall();
 	 * 
 	 * Places the ball in the center of the screen. Called at the start and every
-	 * time the players loses the ball. Waits for player to click before proceeding.
+	 * time the players loses the ball. Waits for player to click before serving.
 	 */
 	private void placeBall() {
 
 		add(ball, BreakoutConstants.WIDTH / 2, BreakoutConstants.HEIGHT / 2);
 
-		Thread phase = new Thread(ball);
-		phase.start();
+		Animator.play(ball);
 
 		ball.sendToBack();
 		background.sendToBack();
 
-		velocityY = INITIAL_VELOCITY_Y;
-
-		velocityX = rando.nextDouble(MIN_VELOCITY_X, MAX_VELOCITY_X) * (rando.nextBoolean() ? 1 : -1);
-
 		long delayStartPoint = System.currentTimeMillis();
 
+		awaitingServe = true;
+
 		waitForClick();
 
+		awaitingServe = false;
+
+		/* The paddle is served where the mouse was when the ball was clicked. */
+		double paddleTarget = mouseX;
+
+		replay.serve(paddleTarget);
+
+		simulation.movePaddleWhileServing(paddleTarget);
+		simulation.serve();
+
 		gameTimer += getTimeElapsed(delayStartPoint);
-		paddleTimer = System.currentTimeMillis();
+
+		/* The time spent waiting isn't simulated. */
+		gameLoop.reset();
 	}
 
 	/**
@@ -281,15 +266,14 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void setLives() {
 
-		livesLeft = LIVES;
-
 		int heartDistance = HEART_WIDTH + HEART_SEP;
 		int x = 0;
 		int y = HEART_OFFSET_Y;
 
 		for (int i = 0; i < LIVES; i++) {
 
-			hearts[i] = new Heart(HEART_WIDTH, HEART_HEIGHT, HEART_COLOR);
+			if (hearts[i] == null) hearts[i] = new Heart(HEART_WIDTH, HEART_HEIGHT, HEART_COLOR);
+			else hearts[i].reset();
 
 			x = HEART_OFFSET_X + i * heartDistance;
 			add(hearts[i], x, y);
@@ -299,20 +283,18 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	/**
 	 * method: decrementLives();
 	 * 
-	 * Decreases the number of lives left and also causes a heart-crack animation
-	 * when called.
+	 * Causes a heart-crack animation for the life that was lost.
 	 */
 	private void decrementLives() {
 
 		ball.exit();
 
-		livesLeft--;
+		int livesLeft = state.getLivesLeft();
 
 		hearts[livesLeft].setColor(BROKEN_HEART_COLOR);
 		hearts[livesLeft].setCracked(true);
 
-		Thread heartBreak = new Thread(hearts[livesLeft]);
-		heartBreak.start();
+		Animator.play(hearts[livesLeft]);
 	}
 
 	/**
@@ -322,19 +304,25 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void setScoreBoard() {
 
-		score = 0;
+		if (scoreBoard == null) {
+
+			int totalDigits = ("" + state.getMaxScore()).length();
 
-		int totalDigits = ("" + maxScore).length();
+			scoreBoard = new HudLabel(totalDigits);
 
-		char[] blankScore = new char[totalDigits];
-		Arrays.fill(blankScore, '0');
+			scoreBoard.setFont(fonts.getFont(Font.PLAIN, SCORE_BOARD_FONT_SIZE));
+			scoreBoard.setColor(SCORE_BOARD_COLOR);
 
-		scoreBoard = new GLabel(new String(blankScore));
+			scoreEmblem = new ScoreEmblem(EMBLEM_SIZE, EMBLEM_SIZE, EMBLEM_SIDES, EMBLEM_COLOR_1, EMBLEM_COLOR_2);
 
-		scoreBoard.setFont(gameFontBase.deriveFont(Font.PLAIN, SCORE_BOARD_FONT_SIZE));
-		scoreBoard.setColor(SCORE_BOARD_COLOR);
+		} else {
+
+			scoreBoard.setNumber(0);
+			scoreEmblem.reset(EMBLEM_COLOR_1, EMBLEM_COLOR_2);
+		}
 
-		scoreEmblem = new ScoreEmblem(EMBLEM_SIZE, EMBLEM_SIZE, EMBLEM_SIDES, EMBLEM_COLOR_1, EMBLEM_COLOR_2);
+		add(scoreBoard);
+		add(scoreEmblem);
 
 		placeScoreBoard();
 	}
@@ -343,33 +331,32 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 * method: incrementScore();
 	 * 
 	 * Changes the value displayed on the scoreboard.
+	 * 
+	 * @param cell : The cell of the brick that was destroyed
 	 */
-	private void incrementScore() {
+	private void incrementScore(int cell) {
 
-		removeBrick((Brick) colObject);
+		removeBrick(bricks[cell]);
 
-		int remainingZeros = scoreBoard.getLabel().length() - ("" + score).length();
+		PlayfieldCanvas playfield = getPlayfield();
 
-		/* This fills the scoreboard with leading zeroes. */
-		char[] zeroes = new char[remainingZeros];
-		Arrays.fill(zeroes, '0');
+		GRectangle boardBefore = playfield.beginChange(scoreBoard);
+		GRectangle emblemBefore = playfield.beginChange(scoreEmblem);
 
-		scoreBoard.setLabel(new String(zeroes) + score);
+		scoreBoard.setNumber(state.getScore());
 
 		/*
 		 * This is to make sure the label flipping animation isn't called before
 		 * finishing the previous one.
 		 */
-		if (scoreEmblem.getThreadState()) {
-
-			Thread flipEmblem = new Thread(scoreEmblem);
-			flipEmblem.start();
-		}
+		if (scoreEmblem.getThreadState()) Animator.play(scoreEmblem);
 
-		scoreEmblem.setColor(EMBLEM_COLOR_1, BRICK_COLORS[((Brick) colObject).getColorIndex()]);
+		scoreEmblem.setColor(EMBLEM_COLOR_1, BRICK_COLORS[state.getBrickColor(cell)]);
 
 		placeScoreBoard();
-		checkForLastBrick();
+
+		playfield.endChange(scoreEmblem, emblemBefore);
+		playfield.endChange(scoreBoard, boardBefore);
 	}
 
 	/**
@@ -381,60 +368,35 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private void removeBrick(Brick brick) {
 
-		score += brick.getScoreMultiplier();
-
 		brick.exit();
+		brick.destroy();
 
 		if (brick == runawayBrick) remove(brick);
 		else {
 
-			brick.destroy();
-
-			Thread fade = new Thread(brick);
-			fade.start();
+			Animator.play(brick);
 		}
 	}
 
 	/**
-	 * method: checkForLastBrick();
+	 * method: changeToRunaway();
 	 * 
-	 * The runawayBrick feature is activated here. Brick scores are assigned in the
-	 * range [NBRICK_COLORS + 1; 2 * NBRICK_COLORS]. When there are two bricks
-	 * remaining the score can at max be (maxScore - 2 * (NBRICK_COLORS + 1).
-	 */
-	private void checkForLastBrick() {
-
-		if (score > maxScore - 2 * (NBRICK_COLORS + 1) && runawayBrick == null) {
-
-			if ((runawayBrick = getRunawayBrick()) != null) {
-
-				runawayBrick.exit();
-				runawayBrick.changeToRunaway();
-			}
-		}
-	}
-
-	/**
-	 * method: getBrickColorIndex();
-	 * 
-	 * Returns the index of where the color is in the BRICK_COLORS array.
+	 * Turns the brick the simulation chose into the runaway brick.
 	 * 
-	 * @param brickColor : The color of the brick
-	 * @return index of the color
+	 * @param cell : The cell of the brick
 	 */
-	private int getBrickColorIndex(Color brickColor) {
+	private void changeToRunaway(int cell) {
 
-		for (int i = 0; i < NBRICK_COLORS; i++) {
-			
-			if (brickColor.equals(BRICK_COLORS[i])) return i;			
-		}
-		return -1;
+		runawayBrick = bricks[cell];
+
+		runawayBrick.exit();
+		runawayBrick.changeToRunaway();
 	}
 
 	/**
 	 * method: placeScoreBoard();
 	 * 
-	 * Adds the scoreboard to the screen.
+	 * Moves the scoreboard to its place, right aligned.
 	 */
 	private void placeScoreBoard() {
 
@@ -444,9 +406,9 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 		x = BreakoutConstants.WIDTH - SCORE_BOARD_OFFSET_X - scoreBoard.getWidth();
 		y = SCORE_BOARD_OFFSET_Y + scoreBoard.getAscent() / 2;
 
-		add(scoreBoard, x, y);
+		scoreBoard.setLocation(x, y);
 
-		add(scoreEmblem, x - SCORE_BOARD_SEP - EMBLEM_SIZE, y - EMBLEM_SIZE);
+		scoreEmblem.setLocation(x - SCORE_BOARD_SEP - EMBLEM_SIZE, y - EMBLEM_SIZE);
 	}
 
 	/**
@@ -459,12 +421,15 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		gameTimer = System.currentTimeMillis();
 
-		long timeElapsed = getTimeElapsed(gameTimer);
+		if (timer == null) {
+
+			timer = new HudLabel(HighscoreList.TIME_LENGTH);
 
-		timer = new GLabel(timeElapsedToString(timeElapsed));
+			timer.setFont(fonts.getFont(Font.BOLD, TIMER_FONT_SIZE));
+			timer.setColor(TIMER_COLOR);
+		}
 
-		timer.setFont(gameFontBase.deriveFont(Font.BOLD, TIMER_FONT_SIZE));
-		timer.setColor(TIMER_COLOR);
+		timer.setTime(getTimeElapsed(gameTimer));
 
 		add(timer, TIMER_OFFSET_X, BreakoutConstants.HEIGHT - TIMER_OFFSET_Y);
 	}
@@ -472,381 +437,217 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	/**
 	 * method: updateTimer();
 	 * 
-	 * Updates the game timer.
+	 * Updates the game timer. Nothing is done until the shown second changes.
 	 */
 	private void updateTimer() {
 
 		long timeElapsed = getTimeElapsed(gameTimer);
-		timer.setLabel(timeElapsedToString(timeElapsed));
-	}
 
-	/**
-	 * method: getTimeElapsed();
-	 * 
-	 * Returns the difference in time between the current point and some reference
-	 * point.
-	 * 
-	 * @param startPoint : The reference point in time (milliseconds)
-	 * @return a long type value corresponding to the difference in time
-	 */
-	private long getTimeElapsed(long startPoint) {
+		if (timer.showsTime(timeElapsed)) return;
 
-		return System.currentTimeMillis() - startPoint;
+		PlayfieldCanvas playfield = getPlayfield();
+
+		GRectangle before = playfield.beginChange(timer);
+
+		timer.setTime(timeElapsed);
+
+		playfield.endChange(timer, before);
 	}
 
 	/**
-	 * method: timeElapsedToString();
-	 * 
-	 * Returns a string representing time passed from reference point.
+	 * method: setGcOverlay();
 	 * 
-	 * @param timeInMillis : The elapsed time in milliseconds
-	 * @return timeElapsed : Elapsed time in hh:mm:ss format as a string
+	 * Adds the memory overlay to the lower right part of the screen, hidden unless
+	 * it was switched on with GC_OVERLAY_KEY.
 	 */
-	private String timeElapsedToString(long timeInMillis) {
+	private void setGcOverlay() {
 
-		long time = timeInMillis / (int) 1e3;
+		if (gcOverlay == null) {
 
-		String seconds = "" + time % 60;
-		seconds = (seconds.length() > 1 ? "" : "0") + seconds;
+			gcOverlay = new GLabel("");
 
-		time /= 60;
-
-		String minutes = "" + time % 60;
-		minutes = (minutes.length() > 1 ? "" : "0") + minutes;
-
-		time /= 60;
+			gcOverlay.setFont(fonts.getFont(Font.PLAIN, GC_OVERLAY_FONT_SIZE));
+			gcOverlay.setColor(GC_OVERLAY_COLOR);
+		}
 
-		String hours = "" + time % 60;
-		hours = (hours.length() > 1 ? "" : "0") + hours;
+		gcOverlay.setVisible(gcOverlayShown);
 
-		String timeElapsed = hours + "-" + minutes + "-" + seconds;
+		add(gcOverlay, TIMER_OFFSET_X, BreakoutConstants.HEIGHT - TIMER_OFFSET_Y - 2 * TIMER_FONT_SIZE);
 
-		return timeElapsed;
+		gcOverlayFrames = 0;
 	}
 
 	/**
-	 * method: startGame();
-	 * 
-	 * Starts the game, keeps track of the player's lives and score.
+	 * method: updateGcOverlay();
 	 * 
-	 * @return boolean representing the outcome of the game : true -> win
+	 * Shows the bytes allocated per frame and the collections of the game so far,
+	 * every GC_OVERLAY_INTERVAL frames while the overlay is switched on.
 	 */
-	private boolean startGame() {
-
-		gameTimer = System.currentTimeMillis();
+	private void updateGcOverlay() {
 
-		while (livesLeft > 0) {
+		if (!gcOverlayShown && !gcOverlay.isVisible()) return;
 
-			while (menuPage == MenuPages.PAUSE) pause(PAUSE_TIME);
+		if (gcOverlayShown == gcOverlay.isVisible() && ++gcOverlayFrames < GC_OVERLAY_INTERVAL) return;
 
-			updateTimer();
+		gcOverlayFrames = 0;
 
-			moveBall();
+		PlayfieldCanvas playfield = getPlayfield();
 
-			pause(PAUSE_TIME);
+		GRectangle before = playfield.beginChange(gcOverlay);
 
-			if (score == maxScore) {
+		gcOverlay.setLabel(gcMonitor.getLastFrameBytes() + " B/frame (" + gcMonitor.getAverageFrameBytes() + " avg, "
+				+ gcMonitor.getMaxFrameBytes() + " max) | " + gcMonitor.getCollections() + " GCs, "
+				+ gcMonitor.getCollectionTime() + " ms");
+		gcOverlay.setVisible(gcOverlayShown);
 
-				menuPage = MenuPages.END_MENU;
-				return true;
-			}
-
-			if (runawayBrick != null) runawayBrick();
-		}
-		
-		menuPage = MenuPages.END_MENU;
-		
-		return false;
+		playfield.endChange(gcOverlay, before);
 	}
 
 	/**
-	 * method: moveBall();
+	 * method: getTimeElapsed();
+	 * 
+	 * Returns the difference in time between the current point and some reference
+	 * point.
 	 * 
-	 * Moves the ball and checks if it has collided with anything.
+	 * @param startPoint : The reference point in time (milliseconds)
+	 * @return a long type value corresponding to the difference in time
 	 */
-	private void moveBall() {
-
-		ball.move(velocityX, velocityY);
-
-		double currBallX = ball.getX();
-		double currBallY = ball.getY();
-
-		checkBorderCol(currBallX, currBallY);
+	private long getTimeElapsed(long startPoint) {
 
-		checkObjCol(currBallX, currBallY);
+		return System.currentTimeMillis() - startPoint;
 	}
 
 	/**
-	 * method: checkBorderCol()
+	 * method: timeElapsedToString();
 	 * 
-	 * Checks if any border collisions have occurred and rebounds the ball
-	 * accordingly (or decrements lives if the crossed border is the bottom one).
+	 * Returns a string representing time passed from reference point.
 	 * 
-	 * @param x, y : current position of the ball
+	 * @param timeInMillis : The elapsed time in milliseconds
+	 * @return timeElapsed : Elapsed time in hh:mm:ss format as a string
 	 */
-	private void checkBorderCol(double x, double y) {
-
-		/* The velocity is checked to make sure the ball doesn't get stuck in a wall. */
-		if ((x <= 0 && velocityX < 0) || (x + BALL_DIAMETER >= BreakoutConstants.WIDTH && velocityX > 0)) {
-
-			velocityX = -velocityX;
-
-		}
-		
-		if (y <= 0) velocityY = -velocityY;
-		else if (y >= BreakoutConstants.HEIGHT) {
-
-			decrementLives();
+	private String timeElapsedToString(long timeInMillis) {
 
-			if (livesLeft > 0) placeBall();
-		}
+		return HighscoreList.formatTime(timeInMillis);
 	}
 
 	/**
-	 * method: checkObjCol();
+	 * method: startGame();
+	 * 
+	 * Starts the game, keeps track of the player's lives and score.
 	 * 
-	 * Checks for collisions with objects. If collision was with a brick, it
-	 * increases the score and removes the brick. The rebound happens differently
-	 * for paddle/bricks.
+	 * The game runs in fixed steps of 1 / SIMULATION_RATE seconds, as many as
+	 * fit into the time passed since the last frame, then draws one frame with the
+	 * ball interpolated between its last two positions. This way the game speed
+	 * doesn't depend on how long drawing takes.
 	 * 
-	 * @param x, y : current position of the ball
+	 * @return boolean representing the outcome of the game : true -> win
 	 */
-	private void checkObjCol(double x, double y) {
-
-		/*
-		 * checkCollider() returns the angle of collision. Negative value = no
-		 * collision.
-		 */
-		int angleOfCollision = checkCollider(x, y);
+	private boolean startGame() {
 
-		if (angleOfCollision >= 0) {
+		gameTimer = System.currentTimeMillis();
 
-			if (colObject == paddle) reboundPaddle(x, y);
-			else if (colObject == runawayBrick) reboundRunawayBrick(angleOfCollision);
-			else {
+		gameLoop.clearStatistics();
+		gameLoop.reset();
+		gcMonitor.clearStatistics();
 
-				reboundBrick(angleOfCollision);
-				incrementScore();
-			}
-		}
-	}
+		while (state.getLivesLeft() > 0) {
 
-	/**
-	 * method: checkCollider();
-	 * 
-	 * Sets colObject to reference whatever the ball collided with (if at all). Also
-	 * returns the angle at which that object touched the balls circumference
-	 * (approximate).
-	 * 
-	 * @param x, y : current position of the ball
-	 * @return collision angle (approximated) or -1 if no collision
-	 */
-	private int checkCollider(double x, double y) {
+			if (menu.getPage() == MenuPages.PAUSE) {
 
-		/* Holds the angle value (rad) at which it is checking. */
-		double checkPoint = 0;
-		double finalCheckPoint = -1;
-		/* Angle interval size at which the checks are made. */
-		double step = 2 * Math.PI / CHECK_POINTS;
-		/* radius of the circumference around which the checks are made. */
-		double checkRadius = 1.1 * BALL_RADIUS;
+				replay.pause();
+				menu.awaitLeaving(MenuPages.PAUSE);
+				replay.resume();
 
-		GObject tempObject;
-
-		x += BALL_RADIUS;
-		y += BALL_RADIUS;
+				gameLoop.reset();
+			}
 
-		/*
-		 * Collision is checked using this for loop. Once one is detected, the object
-		 * reference and the angle is saved in colObject and finalCheckPoint
-		 * accordingly, the checkRadius is decremented and everything else is reset so
-		 * the checking starts again, until it can no longer detect collision. This is
-		 * because the ball moves several pixels at a time and at higher speeds it will
-		 * get lodged inside objects before anything is checked. By checking this way
-		 * the accuracy is higher. The previous to the final values are saved and used
-		 * afterwards.
-		 */
+			gameLoop.beginFrame();
+			gcMonitor.beginFrame();
 
-		for (int i = 0; i < CHECK_POINTS; i++) {
+			while (gameLoop.nextStep()) {
 
-			tempObject = getElementAt(x + checkRadius * Math.cos(checkPoint), y - checkRadius * Math.sin(checkPoint));
+				/* The paddle follows the mouse, as it was when the step started. */
+				double paddleTarget = mouseX;
 
-			/* Since the hit angle isn't important when hitting the paddle. */
-			if (tempObject == paddle) {
+				replay.step(paddleTarget);
 
-				colObject = paddle;
-				return 0;
+				simulation.setPaddleTarget(paddleTarget);
+				simulation.step();
 
-			} else if (tempObject instanceof Brick) {
+				if (state.isWon()) {
 
-				if (((Brick) tempObject).isHittable()) {
+					menu.setPage(MenuPages.END_MENU);
+					replay.end(state);
+					reportGameLoop();
+					return true;
+				}
 
-					colObject = tempObject;
-					finalCheckPoint = checkPoint;
+				if (state.isServing()) {
 
-					i = 0;
-					checkPoint = -step;
-					checkRadius--;
+					placeBall();
+					break;
 				}
 			}
-			checkPoint += step;
-		}
 
-		/* No collisions if this variable still has the initial negative value. */
-		if (finalCheckPoint >= 0) return findInterval((int) Math.toDegrees(finalCheckPoint));
-		else return -1;
-	}
-
-	/**
-	 * method: findInterval();
-	 * 
-	 * Returns the multiple of INTERVAL_SIZE that is closest to the input.
-	 * 
-	 * @param angle : The angle that's being approximated
-	 * @return The approximated angle as an int
-	 */
-	private int findInterval(double angle) {
+			renderFrame(gameLoop.getAlpha());
 
-		angle += INTERVAL_SIZE / 2;
-
-		int interval = (int) (angle / INTERVAL_SIZE) * INTERVAL_SIZE;
-
-		return interval;
+			gcMonitor.endFrame();
+			gameLoop.endFrame();
+		}
+		
+		menu.setPage(MenuPages.END_MENU);
+		replay.end(state);
+		reportGameLoop();
+		
+		return false;
 	}
 
 	/**
-	 * method: reboundPaddle();
+	 * method: renderFrame();
 	 * 
-	 * This method bounces the ball, but it's only called if the paddle was hit.
+	 * Updates what is drawn on the screen.
 	 * 
-	 * @param x, y : current position of the ball
+	 * @param alpha : How far the game is into the next step
 	 */
-	private void reboundPaddle(double x, double y) {
-
-		if (y + BALL_RADIUS < BreakoutConstants.HEIGHT - PADDLE_Y_OFFSET) {
-
-			/* This is to keep the ball from getting stuck inside the paddle. */
-			if (System.currentTimeMillis() - paddleTimer > PADDLE_REBOUND_DELAY) {
-
-				velocityY *= -1;
-
-				fancyRebound(x, y);
-
-				paddleTimer = System.currentTimeMillis();
-
-				paddle.exit();
-
-				paddle.deflectBall();
+	private void renderFrame(double alpha) {
 
-				Thread bounce = new Thread(paddle);
-				bounce.start();
+		PlayfieldCanvas playfield = getPlayfield();
 
-			}
+		GRectangle before = playfield.beginChange(ball);
 
-		} else velocityX *= (paddleSpeed * velocityX > 0) ? 1 : -1;
-	}
+		ball.setLocation(state.getBallX(alpha), state.getBallY(alpha));
 
-	/**
-	 * method: fancyRebound();
-	 * 
-	 * This method changes the ball's horizontal speed, based on where it hit the
-	 * paddle and how fast the paddle was moving.
-	 * 
-	 * @param x, y : current position of the ball
-	 */
-	private void fancyRebound(double x, double y) {
+		playfield.endChange(ball, before);
 
-		double paddleX = paddle.getX();
+		before = playfield.beginChange(paddle);
 
-		/* Horizontal distances between the opposite sides of the object. */
-		double leftMargin = x + BALL_DIAMETER - paddleX;
-		double rightMargin = paddleX + PADDLE_WIDTH - x;
+		paddle.setLocation(state.getPaddleX(alpha), GameState.PADDLE_Y);
 
-		/* Horizontal direction of the ball (positive/negative). */
-		int direction = velocityX > 0 ? 1 : -1;
+		playfield.endChange(paddle, before);
 
-		if (direction > 0 && leftMargin <= PADDLE_EDGE_WIDTH) cornerRebound(leftMargin, direction);
-		else if (direction < 0 && rightMargin <= PADDLE_EDGE_WIDTH) cornerRebound(rightMargin, direction);
-		else speedRebound();
-	}
+		if (runawayBrick != null) {
 
-	/**
-	 * method: cornerRebound();
-	 *
-	 * This method changes the horizontal speed based on where it hit the paddle's
-	 * corner.
-	 * 
-	 * @param margin    : |(x of ball) - (x of paddle)|
-	 * @param direction : direction of the ball's horizontal velocity
-	 */
-	private void cornerRebound(double margin, int direction) {
+			before = playfield.beginChange(runawayBrick);
 
-		double newVelocity = MAX_VELOCITY_X * (PADDLE_EDGE_WIDTH - margin) / PADDLE_EDGE_WIDTH;
+			runawayBrick.setLocation(state.getRunawayX(alpha), runawayBrick.getY());
 
-		if (newVelocity > MIN_VELOCITY_X) velocityX = newVelocity * -direction;
-		else velocityX = MIN_VELOCITY_X * -direction;
-	}
-
-	/**
-	 * method: speedRebound()
-	 * 
-	 * Changes the balls horizontal velocity according to what the paddle's speed
-	 * was when it hit.
-	 */
-	private void speedRebound() {
-
-		double reboundedBallSpeed = MAX_VELOCITY_X * paddleSpeed / MAX_PADDLE_SPEED;
-
-		if (Math.abs(reboundedBallSpeed) > MIN_VELOCITY_X) {
-
-			if (Math.abs(paddleSpeed) >= MAX_PADDLE_SPEED) velocityX = MAX_VELOCITY_X * (paddleSpeed > 0 ? 1 : -1);
-			else velocityX = reboundedBallSpeed;
+			playfield.endChange(runawayBrick, before);
 		}
-	}
-
-	/**
-	 * method: reboundBrick();
-	 * 
-	 * Changes the balls velocity according to what side of the ball was hit.
-	 * Generally it reverses the vertical velocity if the collision was from the
-	 * top/bottom, otherwise it reverses the horizontal velocity.
-	 * 
-	 * @param angleOfCollision (approximate)
-	 */
-	private void reboundBrick(int angleOfCollision) {
 
-		if (angleOfCollision % 180 == 90) velocityY *= -1;
-		else velocityX *= -1;
-
-		if (Math.abs(velocityY) < MAX_VELOCITY_Y) velocityY *= ACCELERATION_Y;
+		updateTimer();
+		updateGcOverlay();
 	}
 
 	/**
-	 * method: reboundRunawayBrick();
-	 * 
-	 * A version of the reboundBrick() for the final brick, which also triggers the
-	 * animation thread and keeps track of the brick's health points.
+	 * method: reportGameLoop();
 	 * 
-	 * @param angleOfCollision : angle at which the ball hit the brick
+	 * Prints how many steps had to be caught up or dropped during the game, and
+	 * how much memory it took.
 	 */
-	private void reboundRunawayBrick(int angleOfCollision) {
-
-		if (getTimeElapsed(runawayBrickTimer) > RUNAWAY_BRICK_REBOUND_DELAY) {
+	private void reportGameLoop() {
 
-			if (runawayBrick.getThreadState()) {
-
-				runawayBrick.setDeflectDirection(angleOfCollision);
-
-				Thread deflect = new Thread(runawayBrick);
-				deflect.start();
-
-				if (runawayBrick.getLives() == 0) incrementScore();
-			}
-
-			reboundBrick(angleOfCollision);
-
-			runawayBrickTimer = System.currentTimeMillis();
-		}
+		System.out.println("Game loop: " + gameLoop);
+		System.out.println("Memory: " + gcMonitor);
 	}
 
 	/**
@@ -857,18 +658,22 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	private void clearGame() {
 
 		removeAll();
-		endAllThreads();
+		endAllAnimations();
 	}
 
 	/**
-	 * method: endAllThreads();
+	 * method: endAllAnimations();
 	 * 
-	 * Tells all the remaining threads to finish executing.
+	 * Tells all the remaining animations to finish and waits for the last frame,
+	 * so the game elements can be reset for the next game.
 	 */
-	private void endAllThreads() {
+	private void endAllAnimations() {
 
 		paddle.exit();
 		for (Brick brick : bricks) brick.exit();
+
+		Animator.stopAll();
+		Animator.awaitFrames();
 	}
 
 	/**
@@ -893,15 +698,15 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 		} else {
 
 			messageText = "YOU LOST!\nYOUR SCORE:\n";
-			result = score;
+			result = state.getScore();
 			resultText = "" + result;
 		}
 
 		FancyFont messageLabel = addMessage(BreakoutConstants.WIDTH / 2, BreakoutConstants.HEIGHT / 2, messageText,
 				BIG_NOTIFICATION_FONT_SIZE, NOTIFICATION_COLOR, false);
 		FancyFont resultLabel = addMessage(BreakoutConstants.WIDTH / 2,
-				BreakoutConstants.HEIGHT / 2 + messageLabel.getHeight(), resultText, BIG_NOTIFICATION_FONT_SIZE,
-				NOTIFICATION_COLOR, false);
+				BreakoutConstants.HEIGHT / 2 + messageLabel.getHeight(),
+				newMessage(resultText, BIG_NOTIFICATION_FONT_SIZE, NOTIFICATION_COLOR, false));
 
 		messageReact(resultLabel, true);
 
@@ -918,20 +723,30 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	/**
 	 * method: menu();
 	 * 
-	 * Displays the game's menu.
+	 * Displays the game's menu. Every page is drawn once, then the game waits
+	 * until the page is changed by a click.
 	 */
 	private void menu() {
 
 		setStartMenuLabels();
 
-		while (menuPage != MenuPages.GAME_ON) {
+		while (true) {
+
+			/* Read before the page, so no change can be missed. */
+			int version = menu.getVersion();
+			MenuPages page = menu.getPage();
+
+			if (page == MenuPages.GAME_ON) break;
 
-			if (menuPage == MenuPages.START_MENU) {
+			if (page == MenuPages.START_MENU) {
 
 				arrowsSetVisible(false);
 
 				startGame.setVisible(true);
 				highscore.setVisible(true);
+
+				menu.awaitChange(version);
+
 			} else {
 
 				arrowsSetVisible(true);
@@ -939,7 +754,7 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 				startGame.setVisible(false);
 				highscore.setVisible(false);
 
-				showScores();
+				showScores(page, version);
 			}
 		}
 
@@ -958,8 +773,8 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		String startGameLabel = "";
 
-		if (menuPage == MenuPages.START_MENU) startGameLabel = "Start Game";
-		else if (menuPage == MenuPages.END_MENU) startGameLabel = "Try Again";
+		if (menu.getPage() == MenuPages.START_MENU) startGameLabel = "Start Game";
+		else if (menu.getPage() == MenuPages.END_MENU) startGameLabel = "Try Again";
 
 		startGame = addMessage(BreakoutConstants.WIDTH / 2, MENU_OFFSET_Y, startGameLabel, BIG_NOTIFICATION_FONT_SIZE,
 				NOTIFICATION_COLOR, true);
@@ -972,28 +787,27 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 		previous = addMessage(MENU_OFFSET_X, BreakoutConstants.HEIGHT / 2, "<", BIG_NOTIFICATION_FONT_SIZE,
 				NOTIFICATION_COLOR, true);
 
-		menuPage = MenuPages.START_MENU;
+		menu.setPage(MenuPages.START_MENU);
 	}
 
 	/**
 	 * method: toMenuPage();
 	 * 
-	 * Sets menuPage to whatever was clicked.
+	 * Moves the menu to whatever page was clicked.
 	 * 
 	 * @param clickSource : a reference to a FancyFont object that was clicked.
 	 */
 	private void toMenuPage(FancyFont clickSource) {
 
-		switch (menuPage) {
+		switch (menu.getPage()) {
 
 		case END_MENU:
 		case START_MENU:
 
-			if (clickSource == startGame) menuPage = MenuPages.GAME_ON;
+			if (clickSource == startGame) menu.setPage(MenuPages.GAME_ON);
 			else if (clickSource == highscore) {
 
-				menuPage = MenuPages.WINNER_HIGHSCORES;
-				switchPage = true;
+				menu.setPage(MenuPages.WINNER_HIGHSCORES);
 			}
 			break;
 
@@ -1001,18 +815,16 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 			if (clickSource == next) {
 
-				menuPage = MenuPages.LOSER_HIGHSCORES;
-				switchPage = true;
+				menu.setPage(MenuPages.LOSER_HIGHSCORES);
 				
 			} else if (clickSource == previous) {
 
-				menuPage = MenuPages.START_MENU;
-				switchPage = true;
+				menu.setPage(MenuPages.START_MENU);
 				
 			} else if (clickSource == clearScores) {
 
 				clear = true;
-				switchPage = true;
+				menu.refresh();
 			}
 			break;
 
@@ -1020,13 +832,12 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 			if (clickSource == previous) {
 
-				menuPage = MenuPages.WINNER_HIGHSCORES;
-				switchPage = true;
+				menu.setPage(MenuPages.WINNER_HIGHSCORES);
 				
 			} else if (clickSource == clearScores) {
 
-				switchPage = true;
 				clear = true;
+				menu.refresh();
 			}
 			break;
 
@@ -1034,7 +845,7 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 			if (clickSource == pause) {
 
-				menuPage = MenuPages.PAUSE;
+				menu.setPage(MenuPages.PAUSE);
 				setPause(true);
 			}
 			break;
@@ -1043,7 +854,7 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 			if (clickSource == pause) {
 
-				menuPage = MenuPages.GAME_ON;
+				menu.setPage(MenuPages.GAME_ON);
 				setPause(false);
 			}
 			break;
@@ -1055,163 +866,101 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	/**
 	 * method: addHighscore();
 	 * 
-	 * Records the new highscore to the specified highscore text file.
+	 * Records the new highscore to the specified highscore store.
 	 * 
-	 * @param data : The score that's being added
-	 * @param file : The file to which the score's being added
+	 * @param data  : The score that's being added
+	 * @param store : The store to which the score's being added
 	 */
-	private void addHighscore(long data, File file) {
-
-		List<String> lines = readDataFile(file);
+	private void addHighscore(long data, HighscoreStore store) {
 
 		String userName = askForInput("Enter Your\nName: ");
 
-		boolean scoreAdded = addNewScore(data, file, lines, userName);
-
-		if (!scoreAdded) appendNewScore(data, file, lines, userName);
-
-		writeToDataFile(file, lines.subList(0, Math.min(lines.size(), MAX_HIGHSCORE_COUNT)));
-	}
-
-	/**
-	 * method: addNewScore();
-	 * 
-	 * Tries to add the new score in between already existing elements of the list.
-	 * returns false if unsuccessful.
-	 * 
-	 * @param data     : The data that's being added
-	 * @param file     : The file the data's being added to
-	 * @param lines    : The List<String> containing the data file's lines
-	 * @param userName : The user's chosen alias for the given score
-	 * @return scoreAdded : true -> score was added
-	 */
-	private boolean addNewScore(long data, File file, List<String> lines, String userName) {
-
-		int length = lines.size();
-		boolean scoreAdded = false;
-
-		for (int i = 0; i < length; i++) {
-
-			if (scoreAdded) lines.set(i, (i + 1) + lines.get(i).substring(1));
-
-			else if (file == highscores && data > parseScore(lines.get(i))) {
-
-				lines.add(i, (i + 1) + ". " + userName + " - " + data + " | " + data);
-				scoreAdded = true;
-				length++;
-				
-			} else if (file == highscoresTime && data < parseScore(lines.get(i))) {
-
-				lines.add(i, (i + 1) + ". " + userName + " - " + timeElapsedToString(data) + " | " + data);
-				scoreAdded = true;
-				length++;
-			}
-		}
-
-		return scoreAdded;
-	}
-
-	/**
-	 * method: parseScore();
-	 * 
-	 * Parses the score from a line of one of the highscore files.
-	 * 
-	 * @param line : The line from the highscore file
-	 * 
-	 * @return an int representing the score;
-	 */
-	private int parseScore(String line) {
-
-		String scoreSubstring = "";
-
-		scoreSubstring = line.substring(line.indexOf('|') + 2);
-
-		return Integer.parseInt(scoreSubstring);
+		store.add(userName, data);
 	}
 
 	/**
 	 * method: askForInput();
 	 * 
-	 * Asks the user for an input.
+	 * Asks the user for an input. The input is shown on one label, which is only
+	 * updated by the key listener when the buffer changes.
 	 * 
 	 * @param prompt : The message displayed to the user
 	 * @return The user's input as a string
 	 */
 	private String askForInput(String prompt) {
 
-		buffer = "";
-
-		String input = "";
-
-		FancyFont inputLabel = null;
 		FancyFont promptLabel = addMessage(BreakoutConstants.WIDTH / 2, MENU_OFFSET_Y, prompt,
 				BIG_NOTIFICATION_FONT_SIZE, NOTIFICATION_COLOR, false);
 
-		menuPage = MenuPages.HIGHSCORE_INPUT;
+		if (inputLabel == null) {
 
-		double inputLabelX = BreakoutConstants.WIDTH / 2;
-		double inputLabelY = MENU_OFFSET_Y + promptLabel.getHeight();
+			inputLabel = new GLabel("");
 
-		while (menuPage == MenuPages.HIGHSCORE_INPUT) {
+			inputLabel.setFont(fonts.getFont(Font.BOLD, NOTIFICATION_FONT_SIZE));
+			inputLabel.setColor(NOTIFICATION_COLOR);
+		}
 
-			inputLabel = addMessage(inputLabelX, inputLabelY, buffer, NOTIFICATION_FONT_SIZE, NOTIFICATION_COLOR,
-					false);
+		inputLabelY = MENU_OFFSET_Y + promptLabel.getHeight();
 
-			pause(PAUSE_TIME);
+		buffer.setLength(0);
+		updateInputLabel();
 
-			remove(inputLabel);
-		}
+		add(inputLabel);
 
-		input = buffer;
+		menu.setPage(MenuPages.HIGHSCORE_INPUT);
+		menu.awaitLeaving(MenuPages.HIGHSCORE_INPUT);
+
+		remove(inputLabel);
 		remove(promptLabel);
 
-		return input;
+		return buffer.toString();
 	}
 
 	/**
 	 * method: toBuffer();
 	 * 
-	 * Adds the corresponding character to the buffer string.
+	 * Adds the corresponding character to the buffer and updates the input label
+	 * if the buffer has changed.
 	 * 
 	 * @param keyCode : The code of the key pressed
 	 */
 	private void toBuffer(int keyCode) {
 
-		if (keyCode == '\b' && !buffer.equals("")) buffer = buffer.substring(0, buffer.length() - 1);
-		else if (keyCode >= (int) ' ' && keyCode <= 126 && buffer.length() < MAX_INPUT_SIZE) buffer += (char) keyCode;
+		int length = buffer.length();
+
+		if (keyCode == '\b' && length > 0) buffer.setLength(length - 1);
+		else if (keyCode >= (int) ' ' && keyCode <= 126 && length < MAX_INPUT_SIZE) buffer.append((char) keyCode);
+		else return;
+
+		updateInputLabel();
 	}
 
 	/**
-	 * method: appendNewScore();
-	 * 
-	 * Adds the new score to the end of the list.
+	 * method: updateInputLabel();
 	 * 
-	 * @param data     : The data that's being added
-	 * @param file     : The file the data's being added to
-	 * @param lines    : The List<String> containing the data file's lines
-	 * @param userName : The user's chosen alias for the given score
+	 * Shows the contents of the buffer on the input label, centered horizontally.
 	 */
-	private void appendNewScore(long data, File file, List<String> lines, String userName) {
+	private void updateInputLabel() {
 
-		int length = lines.size();
+		inputLabel.setLabel(buffer.toString());
 
-		if (length < MAX_HIGHSCORE_COUNT) {
-
-			if (file == highscores) lines.add((length + 1) + ". " + userName + " - " + data + " | " + data);
-			else lines.add((length + 1) + ". " + userName + " - " + timeElapsedToString(data) + " | " + data);
-		}
+		/* Placed the same way addMessage() places a FancyFont. */
+		inputLabel.setLocation((BreakoutConstants.WIDTH - inputLabel.getWidth()) / 2,
+				inputLabelY - inputLabel.getHeight() / 2);
 	}
 
 	/**
 	 * method: showScores();
 	 * 
-	 * Displays the highscores to the screen.
+	 * Displays the highscores to the screen until the page is changed or the
+	 * scores are cleared.
+	 * 
+	 * @param page    : The highscore page that's being displayed
+	 * @param version : The version of the menu state the page was read at
 	 */
-	private void showScores() {
+	private void showScores(MenuPages page, int version) {
 
-		switchPage = false;
-
-		boolean scoreType = (menuPage == MenuPages.WINNER_HIGHSCORES);
+		boolean scoreType = (page == MenuPages.WINNER_HIGHSCORES);
 
 		String descriptionText = (scoreType ? "Winner's" : "Loser's") + "\nScore Board";
 
@@ -1223,15 +972,12 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		FancyFont[] scoreLabels = addScoreLabels(scoreType);
 
-		while (!switchPage) {
-
-			waitForClick();
+		menu.awaitChange(version);
 
-			if (clear) {
+		if (clear) {
 
-				clearDataFile(scoreType ? highscoresTime : highscores);
-				clear = false;
-			}
+			(scoreType ? highscoresTime : highscores).clear();
+			clear = false;
 		}
 		
 		remove(description);
@@ -1250,8 +996,8 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private FancyFont[] addScoreLabels(boolean scoreType) {
 
-		List<String> lines = readDataFile(scoreType ? highscoresTime : highscores);
-		int length = lines.size();
+		List<ScoreEntry> entries = (scoreType ? highscoresTime : highscores).snapshot();
+		int length = entries.size();
 
 		FancyFont[] scoreLabels = new FancyFont[length];
 
@@ -1263,12 +1009,12 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		for (int i = 0; i < length; i++) {
 
-			currentLine = lines.get(i).substring(0, lines.get(i).indexOf('|'));
+			currentLine = (i + 1) + ". " + entries.get(i).getDisplayString();
 
 			currColor = i < 3 ? HIGHSCORE_COLORS[i] : NOTIFICATION_COLOR;
 
-			scoreLabels[i] = addMessage(center, offsetY + (HIGHSCORE_FONT_SIZE + MENU_SEP) * i, currentLine,
-					HIGHSCORE_FONT_SIZE, currColor, true);
+			scoreLabels[i] = addMessage(center, offsetY + (HIGHSCORE_FONT_SIZE + MENU_SEP) * i,
+					newMessage(currentLine, HIGHSCORE_FONT_SIZE, currColor, true));
 		}
 
 		return scoreLabels;
@@ -1286,71 +1032,6 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 		for (FancyFont score : scores) remove(score);
 	}
 
-	/**
-	 * method: readDataFile();
-	 * 
-	 * Reads all the lines from a file.
-	 * 
-	 * @param file : The file that's being read
-	 * @return a List with all the lines from the file
-	 */
-	private List<String> readDataFile(File file) {
-
-		List<String> lines = null;
-
-		try {
-
-			lines = Files.readAllLines(file.toPath());
-
-		} catch (IOException e) {
-
-			e.printStackTrace();
-			System.out.println("Error reading file " + file.toString());
-		}
-
-		return lines;
-	}
-
-	/**
-	 * method: writeToDataFile();
-	 * 
-	 * Writes the elements of a sting list as lines to a text file.
-	 * 
-	 * @param file  : The file that's being overwritten
-	 * @param lines : The string List containing the lines of text
-	 */
-	private void writeToDataFile(File file, List<String> lines) {
-
-		try {
-
-			Files.write(file.toPath(), lines);
-
-		} catch (IOException e) {
-
-			e.printStackTrace();
-			System.out.println("Error writing to file " + file.toString());
-		}
-	}
-
-	/**
-	 * method: clearDataFile();
-	 * 
-	 * Clears the given data file.
-	 * 
-	 * @param file : The data file that is to be cleared
-	 */
-	private void clearDataFile(File file) {
-
-		try {
-
-			Files.write(file.toPath(), new ArrayList<String>(0));
-
-		} catch (IOException e) {
-
-			e.printStackTrace();
-		}
-	}
-
 	/**
 	 * method: arrowsSetVisible();
 	 * 
@@ -1402,7 +1083,8 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 * method: addMessage();
 	 * 
 	 * Adds a message with the given parameters to the given location on the screen
-	 * and returns the reference.
+	 * and returns the reference. Messages are kept and shown again the next time
+	 * the same text is asked for, so use newMessage() for text that changes.
 	 * 
 	 * @param x           : X coordinate of the message
 	 * @param y           : Y coordinate of the message
@@ -1414,81 +1096,144 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	 */
 	private FancyFont addMessage(double x, double y, String text, int size, Color color, boolean interactive) {
 
-		FancyFont message = new FancyFont(text, gameFontBase, size, color);
+		return addMessage(x, y, getMessage(text, size, color, interactive));
+	}
+
+	/**
+	 * method: addMessage();
+	 * 
+	 * Adds a message to the given location on the screen.
+	 * 
+	 * @param x       : X coordinate of the message
+	 * @param y       : Y coordinate of the message
+	 * @param message : The message
+	 * @return the message
+	 */
+	private FancyFont addMessage(double x, double y, FancyFont message) {
+
 		add(message, x, y - message.getHeight() / 2);
 		message.sendToFront();
 
-		if (interactive) message.addMouseListener(mouseListener);
-
 		return message;
 	}
 
 	/**
-	 * method: messageReact();
+	 * method: getMessage();
 	 * 
-	 * Triggers the message animation.
+	 * Returns the kept message with the given parameters, made the first time it's
+	 * asked for.
 	 * 
-	 * @param message : The FancyFont object to trigger the animation on
-	 * @param toState : The state to which the FancyFont object changes
+	 * @param text        : The text that is displayed
+	 * @param size        : Font size of the text
+	 * @param color       : Base color of the text
+	 * @param interactive : Whether it reacts to mouse events or not
+	 * @return a reference to a FancyFont object
 	 */
-	private void messageReact(FancyFont message, boolean toState) {
+	private FancyFont getMessage(String text, int size, Color color, boolean interactive) {
 
-		message.setState(toState);
+		synchronized (messages) {
+
+			/* One key is reused for the lookups, it's only copied for a new message. */
+			messageKey.set(text, size, color.getRGB(), interactive);
+
+			FancyFont message = messages.get(messageKey);
 
-		Thread changeColor = new Thread(message);
-		changeColor.start();
+			if (message == null) {
 
-		myRuntime.gc();
+				message = newMessage(text, size, color, interactive);
+
+				messages.put(new MessageKey(messageKey), message);
+
+			} else {
+
+				message.reset();
+			}
+
+			return message;
+		}
 	}
 
 	/**
-	 * method: getRunawayBrick();
-	 * 
-	 * Checks the all the locations where the bricks where placed to find the last
-	 * remaining brick.
+	 * method: newMessage();
 	 * 
-	 * @return a reference to a Brick object (The last brick); null if there is no
-	 *         such brick.
+	 * @param text        : The text that is displayed
+	 * @param size        : Font size of the text
+	 * @param color       : Base color of the text
+	 * @param interactive : Whether it reacts to mouse events or not
+	 * @return a new FancyFont object
 	 */
-	private Brick getRunawayBrick() {
+	private FancyFont newMessage(String text, int size, Color color, boolean interactive) {
 
-		GObject temp;
+		FancyFont message = new FancyFont(text, fonts, size, color);
 
-		final double brickDistanceX = BRICK_WIDTH + BRICK_SEP;
-		final double brickDistanceY = BRICK_HEIGHT + BRICK_SEP;
+		if (interactive) message.addMouseListener(mouseListener);
 
-		double x = 0, y = 0;
+		return message;
+	}
 
-		for (int i = 0; i < NBRICK_ROWS; i++) {
+	/**
+	 * This class is the key of a kept message: the parameters it was made with.
+	 * The keys in the map must not be changed.
+	 */
+	private static final class MessageKey {
 
-			y = BRICK_Y_OFFSET + i * brickDistanceY + BRICK_HEIGHT / 2;
+		MessageKey() {
 
-			for (int j = 0; j < NBRICKS_PER_ROW; j++) {
+		}
 
-				x = j * brickDistanceX + BRICK_WIDTH / 2;
-				temp = getElementAt(x, y);
+		MessageKey(MessageKey key) {
 
-				if (temp instanceof Brick && ((Brick) temp).isHittable()) return (Brick) temp;
-			}
+			set(key.text, key.size, key.rgb, key.interactive);
+		}
+
+		void set(String text, int size, int rgb, boolean interactive) {
+
+			this.text = text;
+			this.size = size;
+			this.rgb = rgb;
+			this.interactive = interactive;
 		}
 
-		return null;
+		public boolean equals(Object object) {
+
+			if (!(object instanceof MessageKey)) return false;
+
+			MessageKey other = (MessageKey) object;
+
+			return size == other.size && rgb == other.rgb && interactive == other.interactive
+					&& text.equals(other.text);
+		}
+
+		public int hashCode() {
+
+			int hash = text.hashCode();
+
+			hash = 31 * hash + size;
+			hash = 31 * hash + rgb;
+
+			return 31 * hash + (interactive ? 1 : 0);
+		}
+
+		private String text;
+		private int size;
+		private int rgb;
+		private boolean interactive;
+
 	}
 
 	/**
-	 * method: runawayBrick()
+	 * method: messageReact();
+	 * 
+	 * Triggers the message animation.
 	 * 
-	 * Moves the last brick horizontally at a fixed speed. The brick will sometimes
-	 * change directions at random.
+	 * @param message : The FancyFont object to trigger the animation on
+	 * @param toState : The state to which the FancyFont object changes
 	 */
-	private void runawayBrick() {
-
-		double x = runawayBrick.getX();
+	private void messageReact(FancyFont message, boolean toState) {
 
-		if (x < 0 || x + BRICK_WIDTH > BreakoutConstants.WIDTH) runawayBrick.reverseVelocity();
-		else if (rando.nextDouble(0.0, 100.0) < RUNAWAY_BRICK_REVERSE_CHANCE) runawayBrick.reverseVelocity();		
+		message.setState(toState);
 
-		runawayBrick.move(runawayBrick.getVelocity(), 0);
+		Animator.play(message);
 	}
 
 	/**
@@ -1533,22 +1278,24 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		public void mouseMoved(MouseEvent e) {
 
-			double mouseX = e.getX();
+			if (menu.getPage() != MenuPages.GAME_ON) return;
 
-			if (menuPage == MenuPages.GAME_ON) {
+			/* The paddle follows the mouse during the next step of the game. */
+			mouseX = e.getX();
 
-				double dx = 0;
+			/*
+			 * No steps are simulated while the ball waits to be served, the paddle is
+			 * only drawn where it will be served from.
+			 */
+			if (awaitingServe && Simulation.isPaddleTarget(mouseX)) {
 
-				if (mouseX > PADDLE_WIDTH_HALF && mouseX < BreakoutConstants.WIDTH - PADDLE_WIDTH_HALF) {
+				PlayfieldCanvas playfield = getPlayfield();
 
-					/* Last horizontal mouse displacement. */
-					dx = mouseX - (paddle.getX() + PADDLE_WIDTH_HALF);
-				}
+				GRectangle before = playfield.beginChange(paddle);
 
-				paddle.move(dx, 0);
+				paddle.setLocation(mouseX - PADDLE_WIDTH_HALF, GameState.PADDLE_Y);
 
-				/* This way the paddle speed changes more gradually. */
-				paddleSpeed = (paddleSpeed + dx) / 2;
+				playfield.endChange(paddle, before);
 			}
 		}
 	};
@@ -1560,23 +1307,74 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 
 		public void keyPressed(KeyEvent e) {
 
-			if (menuPage == MenuPages.HIGHSCORE_INPUT) {
+			if (menu.getPage() == MenuPages.HIGHSCORE_INPUT) {
 
 				int keyCode = e.getKeyCode();
 
 				if (keyCode == '\n') {
 
-					if (buffer.length() > 0) menuPage = MenuPages.END_MENU;
+					if (buffer.length() > 0) menu.setPage(MenuPages.END_MENU);
 	
 				} else toBuffer(keyCode);
 				
-			} else if (e.getKeyChar() == 'p') toMenuPage(pause);
+			} else if (e.getKeyChar() == 'p') {
+
+				toMenuPage(pause);
+
+			} else if (e.getKeyChar() == GC_OVERLAY_KEY) gcOverlayShown = !gcOverlayShown;
+		}
+	};
+
+	/**
+	 * Simulation listener methods:
+	 */
+	private SimulationListener simulationListener = new SimulationListener() {
+
+		public void paddleHit() {
+
+			paddle.deflectBall();
+		}
+
+		public void brickDestroyed(int cell) {
+
+			incrementScore(cell);
+		}
+
+		public void runawayBrickChosen(int cell) {
+
+			changeToRunaway(cell);
+		}
+
+		public void runawayBrickHit(int angle) {
+
+			runawayBrick.hit(angle);
+
+			Animator.play(runawayBrick);
+		}
+
+		public void lifeLost() {
+
+			decrementLives();
 		}
 	};
 
-	private Runtime myRuntime = Runtime.getRuntime();
+	private Simulation simulation = new Simulation(System.nanoTime(), simulationListener);
+	private GameState state;
+
+	private ReplayRecorder replay = new ReplayRecorder(new File("./files/replays"));
+
+	/** Where the mouse was last seen during a game, NO_MOUSE before that */
+	private volatile double mouseX = NO_MOUSE;
+
+	/** true while placeBall() waits for the click that serves the ball */
+	private volatile boolean awaitingServe;
 
-	private RandomGenerator rando = new RandomGenerator();
+	private FixedTimestep gameLoop = new FixedTimestep(SIMULATION_RATE, FRAME_RATE, MAX_STEPS_PER_FRAME);
+	private GcMonitor gcMonitor = new GcMonitor(FRAME_ALLOCATION_BUDGET);
+
+	private GLabel gcOverlay;
+	private volatile boolean gcOverlayShown;
+	private int gcOverlayFrames;
 
 	private Heart[] hearts = new Heart[LIVES];
 
@@ -1584,29 +1382,20 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	private Paddle paddle;
 	private Ball ball;
 	private Brick[] bricks;
-	private GLabel scoreBoard;
-	private GLabel timer;
+	private HudLabel scoreBoard;
+	private HudLabel timer;
 	private ScoreEmblem scoreEmblem;
-	private GObject colObject;
-
-	private MenuPages menuPage = MenuPages.START_MENU;
-
-	private double velocityX;
-	private double velocityY;
-	private double paddleSpeed;
 
-	private int livesLeft;
-	private int score;
-	private int maxScore;
+	private MenuState menu = new MenuState(MenuPages.START_MENU);
 
-	private long paddleTimer;
-	private long runawayBrickTimer;
 	private long gameTimer;
 
-	private boolean switchPage;
-	private boolean clear;
+	private volatile boolean clear;
 
-	private String buffer;
+	private StringBuilder buffer = new StringBuilder(MAX_INPUT_SIZE);
+
+	private GLabel inputLabel;
+	private double inputLabelY;
 
 	private FancyFont startGame;
 	private FancyFont highscore;
@@ -1616,10 +1405,17 @@ public class Breakout extends GraphicsProgram implements BreakoutConstants {
 	private FancyFont pause;
 
 	private Font gameFontBase;
+	private FontCache fonts;
+
+	/** Messages made by getMessage(), by their parameters, also the lock of getMessage() */
+	private Map<MessageKey, FancyFont> messages = new HashMap<MessageKey, FancyFont>();
+
+	/** The key getMessage() looks messages up with */
+	private MessageKey messageKey = new MessageKey();
 
 	private Brick runawayBrick;
 
-	File highscoresTime;
-	File highscores;
+	private HighscoreStore highscoresTime;
+	private HighscoreStore highscores;
 
 }
@@ -111,6 +111,12 @@ public interface BreakoutConstants {
 
 	public static final int MAX_HIGHSCORE_COUNT = 9;
 
+	/** Scores kept in each highscore store, only MAX_HIGHSCORE_COUNT are shown */
+	public static final int MAX_STORED_HIGHSCORES = 1000;
+
+	/** Amount of recorded games kept in the replay folder */
+	public static final int MAX_REPLAYS = 20;
+
 	/** Enumeration for the menu pages */
 	public enum MenuPages {
 
@@ -125,29 +131,37 @@ public interface BreakoutConstants {
 
 	public static final Color TIMER_COLOR = Color.pink;
 
-	/** Pause time between ball movements */
-	public static final int PAUSE_TIME = 5;
+	/** Game loop parameters: simulation steps and frames drawn per second */
+	public static final int SIMULATION_RATE = 200;
+	public static final int FRAME_RATE = 60;
+
+	/** Maximum amount of steps simulated in one frame to catch up */
+	public static final int MAX_STEPS_PER_FRAME = 10;
+
+	/** Most bytes the game loop should allocate in one frame */
+	public static final long FRAME_ALLOCATION_BUDGET = 4 * 1024;
 
-	/** Time interval before the ball can rebound on the paddle. */
-	public static final int PADDLE_REBOUND_DELAY = 150;
+	/** Memory overlay: toggle key, frames between updates and look */
+	public static final char GC_OVERLAY_KEY = 'g';
+	public static final int GC_OVERLAY_INTERVAL = FRAME_RATE / 4;
+	public static final int GC_OVERLAY_FONT_SIZE = 10;
+	public static final Color GC_OVERLAY_COLOR = Color.lightGray;
 
-	/** Time interval before the ball can rebound on the runaway brick */
-	public static final int RUNAWAY_BRICK_REBOUND_DELAY = 150;
+	/** Maximum amount of rebounds the ball can make during one tick */
+	public static final int MAX_BOUNCES_PER_TICK = 8;
 
 	/** Part of the paddle that triggers corner rebound */
 	public static final double PADDLE_EDGE_WIDTH = PADDLE_WIDTH * 0.15;
 
 	/** Parameters for the final bricks movements */
 	public static final double RUNAWAY_BRICK_REVERSE_CHANCE = 0.2;
+	public static final double RUNAWAY_BRICK_VELOCITY = 2;
 
-	/** Angle width of the side of the ball considered as one hit point */
-	public static final int INTERVAL_SIZE = 90;
+	/** Amount of hits required to break the final brick */
+	public static final int RUNAWAY_BRICK_LIVES = 3;
 
-	/**
-	 * Amount of equally spaced points on the circumference of the ball that are
-	 * checked
-	 */
-	public static final int CHECK_POINTS = 36;
+	/** Simulation steps after a hit before the final brick can be hit again */
+	public static final int RUNAWAY_BRICK_HIT_COOLDOWN = SIMULATION_RATE / 2;
 
 	/** Maximum input size for saving a new highscore */
 	public static final int MAX_INPUT_SIZE = 6;
@@ -2,17 +2,22 @@
 /*
  * File: Brick.java 
  * ---------------------
- * This class is for the bricks in breakout.
+ * This class is for the bricks in breakout. It only draws a brick and plays its
+ * animations, the state of the bricks (where they are, which are left) is kept
+ * by the Simulation in a GameState.
  */
 
 import acm.graphics.*;
 import acm.util.RandomGenerator;
 
-public class Brick extends GCompound implements Runnable {
+public class Brick extends GCompound implements Animation {
 
 	/** Color names for the bricks */
 	private static final String[] COLORS = new String[] { "red", "orange", "yellow", "green", "cyan" };
-	private static final int NCOLORS = COLORS.length;
+
+	/** Image names of the runaway brick */
+	private static final String RUNAWAY_IMAGE = "lava";
+	private static final String WAVE_IMAGE = "wave";
 
 	/** Chance for the brick to randomly fidget */
 	private static final double FIDGET_CHANCE = 10;
@@ -26,13 +31,6 @@ public class Brick extends GCompound implements Runnable {
 	private static final int BLINK_A = 300;
 	private static final int BLINK_B = 3;
 
-	/** Reduces the load from the fidget threads */
-	private static final int FIDGET_PAUSE_TIME = 100;
-
-	/** Amount of hits required to break the final brick */
-	private static final int RUNAWAY_LIVES = 3;
-	private static final double RUNAWAY_BRICK_VELOCITY = 2;
-
 	/** shakeVertically() animation parameters */
 	private static final int NANIMATION_FRAMES_SHAKE = 5;
 	private static final int ANIMATION_FRAME_DELAY_SHAKE = 11;
@@ -47,6 +45,13 @@ public class Brick extends GCompound implements Runnable {
 	private static final double WAVE_RATIO = 0.2;
 	private static final double WAVE_PASS_REPEATS = 2;
 
+	/** The animations a brick can play */
+	private enum Animations {
+
+		NONE, FIDGET, FADE, SHAKE, WAVE
+
+	}
+
 	/**
 	 * Constructor:
 	 * 
@@ -60,48 +65,95 @@ public class Brick extends GCompound implements Runnable {
 		this.height = height;
 		this.colorIndex = colorIndex;
 
-		lives = RUNAWAY_LIVES;
-
 		makeBrick();
 
 	}
 
 	/**
-	 * @see java.lang.Runnable#run()
+	 * method: addSprites();
+	 * 
+	 * Adds the sprites of all the kinds of bricks of the given size to the atlas.
+	 * 
+	 * @param atlas  : The atlas being built
+	 * @param width  : Width of the bricks
+	 * @param height : Height of the bricks
+	 */
+	public static void addSprites(SpriteAtlas atlas, double width, double height) {
+
+		for (String color : COLORS) {
+
+			atlas.add(imagePath(color), toPixels(width), toPixels(height));
+
+		}
+
+		atlas.add(imagePath(RUNAWAY_IMAGE), toPixels(width), toPixels(height));
+		atlas.add(imagePath(WAVE_IMAGE), toPixels(width * WAVE_RATIO), toPixels(height));
+
+	}
+
+	/**
+	 * @see Animation#start()
 	 */
-	public void run() {
+	public void start() {
 
 		exit = false;
 
+		frame = 0;
+		segment = 0;
+
 		if (runaway) {
 
-			lives--;
-			deflect();
+			if (deflectDirection % 180 == 90) {
+
+				animation = Animations.SHAKE;
+				shakeSpeed = BASE_SHAKE_SPEED * Math.sin(-Math.toRadians(deflectDirection));
+
+			} else {
+
+				animation = Animations.WAVE;
+
+			}
 
 		} else if (destroyed) {
 
-			fade();
+			animation = Animations.FADE;
+			blink = true;
 
 		} else if (rando.nextDouble(0, 100) < FIDGET_CHANCE) {
 
-			fidget();
+			animation = Animations.FIDGET;
 
-		}
+		} else {
 
-		exit = true;
+			animation = Animations.NONE;
+
+		}
 
 	}
 
 	/**
-	 * method: getLives();
-	 * 
-	 * returns the amount of lives the brick has left.
-	 * 
-	 * @return an integer corresponding to the amount of lives left
+	 * @see Animation#step()
 	 */
-	public int getLives() {
+	public int step() {
+
+		switch (animation) {
+
+		case FIDGET:
+			return fidget();
+
+		case FADE:
+			return fade();
 
-		return lives;
+		case SHAKE:
+			return shakeVertically();
+
+		case WAVE:
+			return wavePass();
+
+		default:
+			return finish();
+
+		}
 
 	}
 
@@ -119,15 +171,40 @@ public class Brick extends GCompound implements Runnable {
 	}
 
 	/**
-	 * method: getScoreMultiplier();
+	 * method: reset();
 	 * 
-	 * returns the score multiplier for a brick.
+	 * Turns the brick back into a whole, ordinary brick, so it can be reused for a
+	 * new game. The animation has to be stopped.
 	 * 
-	 * @return an integer representing the score
+	 * @param colorIndex : Index of the brick's color in the COLORS array
 	 */
-	public int getScoreMultiplier() {
+	public void reset(int colorIndex) {
+
+		if (runaway || colorIndex != this.colorIndex) {
+
+			brick.setImage(SpriteCache.get(imagePath(COLORS[colorIndex]), toPixels(width), toPixels(height)));
+
+		}
+
+		this.colorIndex = colorIndex;
+
+		if (wave != null && wave.getParent() == this) remove(wave);
 
-		return 2 * NCOLORS - colorIndex;
+		if (brick.getParent() != this) add(brick);
+
+		brick.setLocation(0, 0);
+		brick.setVisible(true);
+
+		runaway = false;
+		destroyed = false;
+		deflectDirection = 0;
+
+		animation = Animations.NONE;
+		frame = 0;
+		segment = 0;
+		phase = false;
+
+		exit = true;
 
 	}
 
@@ -140,30 +217,26 @@ public class Brick extends GCompound implements Runnable {
 
 		runaway = true;
 
-		brick.setImage("./images/brick/lava.png");
-
-		brick.setSize(width, height);
+		brick.setImage(SpriteCache.get(imagePath(RUNAWAY_IMAGE), toPixels(width), toPixels(height)));
 
-		wave = new GImage("./images/brick/wave.png");
+		if (wave == null) {
 
-		wave.setSize(width * WAVE_RATIO, height);
+			wave = new GImage(SpriteCache.get(imagePath(WAVE_IMAGE), toPixels(width * WAVE_RATIO), toPixels(height)));
 
-		add(wave);
-
-		wavePass();
+		}
 
-		runawayBrickVelocity = RUNAWAY_BRICK_VELOCITY;
+		Animator.play(this);
 
 	}
 
 	/**
-	 * method: setDeflectDirection();
+	 * method: hit();
 	 * 
-	 * Sets the deflect direction for the deflect animation
+	 * Sets the direction for the deflect animation of the runaway brick.
 	 * 
 	 * @param direction : an integer representing the angle of collision in degrees.
 	 */
-	public void setDeflectDirection(int direction) {
+	public void hit(int direction) {
 
 		deflectDirection = direction;
 
@@ -182,78 +255,82 @@ public class Brick extends GCompound implements Runnable {
 	}
 
 	/**
-	 * method: isHittable();
+	 * method: getThreadState();
 	 * 
-	 * Returns a boolean value corresponding to the brick's state.
+	 * Used to see if an animation is playing on this object.
 	 * 
-	 * @return a boolean : true -> brick is destroyed
+	 * @return boolean value : true - > no animation playing
 	 */
-	public boolean isHittable() {
+	public boolean getThreadState() {
 
-		return !destroyed;
+		return exit;
 
 	}
 
 	/**
-	 * method: getVelocity();
-	 * 
-	 * returns the the velocity of the runaway brick.
+	 * method: exit();
 	 * 
-	 * @return a double representing the velocity
+	 * Tells the animation to finish.
 	 */
-	public double getVelocity() {
+	public void exit() {
 
-		return runawayBrickVelocity;
+		exit = true;
 
 	}
 
 	/**
-	 * method: reverseVelocity();
+	 * method: makeBrick();
 	 * 
-	 * reverses the runaway brick's velocity.
+	 * Adds a brick to the GCompound.
 	 */
-	public void reverseVelocity() {
+	private void makeBrick() {
+
+		brick = new GImage(SpriteCache.get(imagePath(COLORS[colorIndex]), toPixels(width), toPixels(height)));
 
-		runawayBrickVelocity *= -1;
+		add(brick);
 
 	}
 
 	/**
-	 * method: getThreadState();
+	 * method: imagePath();
 	 * 
-	 * Used to see if a thread is running on this object.
+	 * Returns the path of one of the brick images.
 	 * 
-	 * @return boolean value : true - > thread running
+	 * @param name : Name of the image
+	 * @return the path of the image file
 	 */
-	public boolean getThreadState() {
+	private static String imagePath(String name) {
 
-		return exit;
+		return "./images/brick/" + name + ".png";
 
 	}
 
 	/**
-	 * method: exit();
+	 * method: toPixels();
+	 * 
+	 * Rounds a dimension of a sprite to whole pixels.
 	 * 
-	 * Tells the thread to finish executing.
+	 * @param size : The dimension
+	 * @return the rounded dimension
 	 */
-	public void exit() {
+	private static int toPixels(double size) {
 
-		exit = true;
+		return (int) Math.round(size);
 
 	}
 
 	/**
-	 * method: makeBrick();
+	 * method: finish();
 	 * 
-	 * Adds a brick to the GCompound.
+	 * Ends the current animation.
+	 * 
+	 * @return Animation.FINISHED
 	 */
-	private void makeBrick() {
+	private int finish() {
 
-		brick = new GImage("./images/brick/" + COLORS[colorIndex] + ".png");
-
-		add(brick);
+		exit = true;
 
-		brick.setSize(width, height);
+		return FINISHED;
 
 	}
 
@@ -261,46 +338,31 @@ public class Brick extends GCompound implements Runnable {
 	 * method: fidget();
 	 * 
 	 * Makes the brick move around slightly in between random intervals of time.
+	 * Every frame either moves the brick away or back to where it was.
+	 * 
+	 * @return delay before the next frame
 	 */
-	private void fidget() {
-
-		int fidgetX = 0;
-		int fidgetY = 0;
-
-		double fidgetDelay = FIDGET_FRAME_DELAY;
-
-		boolean phase = false;
-
-		while (!exit) {
+	private int fidget() {
 
-			if (System.currentTimeMillis() - fidgetTimer > fidgetDelay) {
+		if (exit) return finish();
 
-				if (!phase) {
+		if (!phase) {
 
-					fidgetX = FIDGET_AMPLITUDE * rando.nextInt(-1, 1);
-					fidgetY = FIDGET_AMPLITUDE * rando.nextInt(-1, 1);
+			fidgetX = FIDGET_AMPLITUDE * rando.nextInt(-1, 1);
+			fidgetY = FIDGET_AMPLITUDE * rando.nextInt(-1, 1);
 
-					brick.move(fidgetX, fidgetY);
-
-				} else {
-
-					fidgetX *= -1;
-					fidgetY *= -1;
-
-					brick.move(fidgetX, fidgetY);
-
-				}
+		} else {
 
-				fidgetDelay = FIDGET_FRAME_DELAY * rando.nextDouble(0.5, 4);
-				fidgetTimer = System.currentTimeMillis();
+			fidgetX *= -1;
+			fidgetY *= -1;
 
-				phase = !phase;
+		}
 
-			}
+		brick.move(fidgetX, fidgetY);
 
-			pause(FIDGET_PAUSE_TIME);
+		phase = !phase;
 
-		}
+		return (int) (FIDGET_FRAME_DELAY * rando.nextDouble(0.5, 4));
 
 	}
 
@@ -308,86 +370,79 @@ public class Brick extends GCompound implements Runnable {
 	 * method: fade();
 	 * 
 	 * Animates the death of a hero.
-	 */
-	private void fade() {
-
-		amplitude(FADE_SPEED, NANIMATION_FRAMES_FADE, ANIMATION_FRAME_DELAY_FADE);
-
-		remove(brick);
-
-	}
-
-	/**
-	 * method: deflect();
 	 * 
-	 * Triggers the deflect animation based on the angle of collision.
+	 * @return delay before the next frame
 	 */
-	private void deflect() {
-
-		if (deflectDirection % 180 == 90) {
+	private int fade() {
 
-			shakeVertically();
+		if (frame < NANIMATION_FRAMES_FADE) {
 
-		} else {
+			amplitude(FADE_SPEED);
 
-			reverseVelocity();
-			wavePass();
+			return ANIMATION_FRAME_DELAY_FADE;
 
 		}
 
+		remove(brick);
+
+		return finish();
+
 	}
 
 	/**
 	 * method: shakeVertically();
 	 * 
-	 * Shakes the brick vertically based on the angle of collision.
+	 * Shakes the brick vertically based on the angle of collision. The shake is
+	 * made of SHAKE_REPEATS pairs of amplitudes (there and back), each pair
+	 * smaller than the previous.
+	 * 
+	 * @return delay before the next frame
 	 */
-	private void shakeVertically() {
-
-		double shakeSpeed = BASE_SHAKE_SPEED * Math.sin(-Math.toRadians(deflectDirection));
+	private int shakeVertically() {
 
-		for (int i = 0; i < SHAKE_REPEATS; i++) {
+		int frames = segment % 2 == 0 ? NANIMATION_FRAMES_SHAKE : ANIMATION_FRAME_DELAY_SHAKE;
 
-			amplitude(shakeSpeed, NANIMATION_FRAMES_SHAKE, ANIMATION_FRAME_DELAY_SHAKE);
+		if (frame == frames) {
 
-			shakeSpeed *= -1;
+			frame = 0;
 
-			amplitude(shakeSpeed, ANIMATION_FRAME_DELAY_SHAKE, ANIMATION_FRAME_DELAY_SHAKE);
+			if (segment % 2 == 0) shakeSpeed *= -1;
+			else shakeSpeed *= DAMPENING_SPEED;
 
-			shakeSpeed *= DAMPENING_SPEED;
+			segment++;
 
 		}
 
+		if (segment == 2 * SHAKE_REPEATS) return finish();
+
+		amplitude(shakeSpeed);
+
+		return ANIMATION_FRAME_DELAY_SHAKE;
+
 	}
 
 	/**
 	 * method: amplitude();
 	 * 
-	 * Animates an amplitude of the shake animation.
+	 * Animates one frame of an amplitude of the shake/fade animations.
 	 * 
 	 * @param speed : The speed of movement during the animation
 	 */
-	private void amplitude(double speed, int frames, int delay) {
-
-		boolean blink = true;
+	private void amplitude(double speed) {
 
-		for (int i = 1; i <= frames; i++) {
+		frame++;
 
-			brick.move(0, speed);
+		brick.move(0, speed);
 
-			if (destroyed) {
+		if (destroyed) {
 
-				if (i % (BLINK_A /  (i * BLINK_B) + 1) == 0) {
+			if (frame % (BLINK_A / (frame * BLINK_B) + 1) == 0) {
 
-					brick.setVisible(blink);
-					blink = !blink;
-
-				}
+				brick.setVisible(blink);
+				blink = !blink;
 
 			}
 
-			pause(delay);
-
 		}
 
 	}
@@ -397,8 +452,10 @@ public class Brick extends GCompound implements Runnable {
 	 * 
 	 * Animates a wave passing along the runaway brick, also dependent on the angle
 	 * of collision.
+	 * 
+	 * @return delay before the next frame
 	 */
-	private void wavePass() {
+	private int wavePass() {
 
 		double traversableWidth = width - wave.getWidth();
 		double speedX = traversableWidth / NANIMATION_FRAMES_WAVE;
@@ -411,42 +468,54 @@ public class Brick extends GCompound implements Runnable {
 
 		}
 
-		for (int i = 0; i < WAVE_PASS_REPEATS; i++) {
+		if (frame == 0) add(wave, waveStartPoint, brick.getY());
 
-			add(wave, waveStartPoint, brick.getY());
+		if (frame < NANIMATION_FRAMES_WAVE) {
 
-			for (int j = 0; j < NANIMATION_FRAMES_WAVE; j++) {
+			wave.move(speedX, 0);
+			frame++;
 
-				wave.move(speedX, 0);
+			return ANIMATION_FRAME_DELAY_WAVE;
 
-				pause(ANIMATION_FRAME_DELAY_WAVE);
+		}
 
-			}
+		remove(wave);
 
-			remove(wave);
+		frame = 0;
+		segment++;
 
-		}
+		if (segment == WAVE_PASS_REPEATS) return finish();
+
+		return 0;
 
 	}
 
-	private RandomGenerator rando = new RandomGenerator();
+	/** Shared by all the bricks, the animations are all played on one thread */
+	private static RandomGenerator rando = RandomGenerator.getInstance();
 
 	private GImage brick;
 	private GImage wave;
 
-	private int lives;
 	private int colorIndex;
 	private double width;
 	private double height;
 
-	private double runawayBrickVelocity = 0;
-
 	private int deflectDirection;
 
 	private boolean runaway;
 	private boolean destroyed;
 
-	private long fidgetTimer;
+	private int fidgetX;
+	private int fidgetY;
+
+	private Animations animation = Animations.NONE;
+
+	private int frame;
+	private int segment;
+	private double shakeSpeed;
+
+	private boolean phase;
+	private boolean blink;
 
 	private volatile boolean exit = true;
 
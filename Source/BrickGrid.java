@@ -0,0 +1,293 @@
+/*
+ * File: BrickGrid.java
+ * ---------------------
+ * This class keeps the bricks in a uniform grid (row, column), so the bricks
+ * the ball can touch are found directly from its position instead of searching
+ * through everything on the canvas. A brick is identified by its cell, the
+ * index row * NBRICKS_PER_ROW + column.
+ *
+ * The bricks are kept as bits of a long[] (one bit per cell), the positions of
+ * the cells are computed once in primitive arrays. Checking, finding and
+ * counting bricks are bit operations on a couple of words.
+ */
+
+public class BrickGrid implements BreakoutConstants {
+
+	/** Distances between the upper left corners of neighbouring cells */
+	private static final double CELL_DISTANCE_X = BRICK_WIDTH + BRICK_SEP;
+	private static final double CELL_DISTANCE_Y = BRICK_HEIGHT + BRICK_SEP;
+
+	/** Value returned when there is no brick */
+	public static final int NO_BRICK = -1;
+
+	/** Amount of cells in the grid */
+	public static final int NCELLS = NBRICK_ROWS * NBRICKS_PER_ROW;
+
+	/** Upper left corners of the cells */
+	private static final double[] CELL_X = new double[NCELLS];
+	private static final double[] CELL_Y = new double[NCELLS];
+
+	static {
+
+		for (int cell = 0; cell < NCELLS; cell++) {
+
+			CELL_X[cell] = BRICK_X_OFFSET + (cell % NBRICKS_PER_ROW) * CELL_DISTANCE_X;
+			CELL_Y[cell] = BRICK_Y_OFFSET + (cell / NBRICKS_PER_ROW) * CELL_DISTANCE_Y;
+
+		}
+
+	}
+
+	/**
+	 * Constructor:
+	 *
+	 * Creates an empty grid with NBRICK_ROWS rows and NBRICKS_PER_ROW columns.
+	 */
+	public BrickGrid() {
+
+		live = new long[(NCELLS + 63) / 64];
+
+	}
+
+	/**
+	 * method: put();
+	 *
+	 * Puts a brick in the given cell.
+	 *
+	 * @param cell : The cell of the brick
+	 */
+	public void put(int cell) {
+
+		if (!contains(cell)) count++;
+
+		live[cell >>> 6] |= 1L << cell;
+
+	}
+
+	/**
+	 * method: remove();
+	 *
+	 * Removes the brick from the grid, so the ball can no longer collide with it.
+	 *
+	 * @param cell : The cell of the brick
+	 */
+	public void remove(int cell) {
+
+		if (contains(cell)) count--;
+
+		live[cell >>> 6] &= ~(1L << cell);
+
+	}
+
+	/**
+	 * method: contains();
+	 *
+	 * @param cell : The cell
+	 * @return true if there is a brick in the cell
+	 */
+	public boolean contains(int cell) {
+
+		return (live[cell >>> 6] & 1L << cell) != 0;
+
+	}
+
+	/**
+	 * method: count();
+	 *
+	 * @return amount of bricks in the grid
+	 */
+	public int count() {
+
+		return count;
+
+	}
+
+	/**
+	 * method: isEmpty();
+	 *
+	 * @return true if there are no bricks in the grid
+	 */
+	public boolean isEmpty() {
+
+		return count == 0;
+
+	}
+
+	/**
+	 * method: first();
+	 *
+	 * Returns the first cell with a brick in it, going row by row from the top.
+	 *
+	 * @return the cell or NO_BRICK if the grid is empty
+	 */
+	public int first() {
+
+		return next(0, NCELLS);
+
+	}
+
+	/**
+	 * method: next();
+	 *
+	 * Returns the first cell with a brick in it in the range [from; to).
+	 *
+	 * @param from : The first cell that's checked
+	 * @param to   : The cell after the last one that's checked
+	 * @return the cell or NO_BRICK if there is none
+	 */
+	public int next(int from, int to) {
+
+		if (from >= to) return NO_BRICK;
+
+		int index = from >>> 6;
+
+		/* The bits of the first word before from are masked away. */
+		long word = live[index] & -1L << from;
+
+		while (true) {
+
+			if (word != 0) {
+
+				int cell = (index << 6) + Long.numberOfTrailingZeros(word);
+
+				return cell < to ? cell : NO_BRICK;
+
+			}
+
+			if (++index << 6 >= to) return NO_BRICK;
+
+			word = live[index];
+
+		}
+
+	}
+
+	/**
+	 * method: getX();
+	 *
+	 * @param cell : The cell
+	 * @return x coordinate of the left side of the brick in the cell
+	 */
+	public static double getX(int cell) {
+
+		return CELL_X[cell];
+
+	}
+
+	/**
+	 * method: getY();
+	 *
+	 * @param cell : The cell
+	 * @return y coordinate of the top of the brick in the cell
+	 */
+	public static double getY(int cell) {
+
+		return CELL_Y[cell];
+
+	}
+
+	/**
+	 * method: sweep();
+	 *
+	 * Moves a circle along (dx, dy) and finds the first brick it hits. Only the
+	 * cells overlapped by the bounding box of the whole movement are checked. The
+	 * cell that was hit can be read with getHitCell().
+	 *
+	 * @param centerX, centerY : center of the circle
+	 * @param radius           : radius of the circle
+	 * @param dx, dy           : the movement
+	 * @param normal           : receives the normal of the impact
+	 * @return time of impact in the range [0; 1] or Collision.NO_COLLISION
+	 */
+	public double sweep(double centerX, double centerY, double radius, double dx, double dy, double[] normal) {
+
+		int firstColumn = cellOf(Math.min(centerX, centerX + dx) - radius, BRICK_X_OFFSET, CELL_DISTANCE_X);
+		int lastColumn = cellOf(Math.max(centerX, centerX + dx) + radius, BRICK_X_OFFSET, CELL_DISTANCE_X);
+		int firstRow = cellOf(Math.min(centerY, centerY + dy) - radius, BRICK_Y_OFFSET, CELL_DISTANCE_Y);
+		int lastRow = cellOf(Math.max(centerY, centerY + dy) + radius, BRICK_Y_OFFSET, CELL_DISTANCE_Y);
+
+		hitCell = NO_BRICK;
+
+		/* The ball stays completely outside of the grid. */
+		if (lastColumn < 0 || lastRow < 0 || firstColumn >= NBRICKS_PER_ROW || firstRow >= NBRICK_ROWS) {
+
+			return Collision.NO_COLLISION;
+		}
+
+		firstColumn = Math.max(firstColumn, 0);
+		firstRow = Math.max(firstRow, 0);
+		lastColumn = Math.min(lastColumn, NBRICKS_PER_ROW - 1);
+		lastRow = Math.min(lastRow, NBRICK_ROWS - 1);
+
+		double earliest = Collision.NO_COLLISION;
+
+		for (int row = firstRow; row <= lastRow; row++) {
+
+			int rowStart = row * NBRICKS_PER_ROW;
+			int end = rowStart + lastColumn + 1;
+
+			/* Only the cells with bricks in them are visited. */
+			for (int cell = next(rowStart + firstColumn, end); cell != NO_BRICK; cell = next(cell + 1, end)) {
+
+				double time = Collision.sweepCircleVsRect(centerX, centerY, radius, dx, dy, CELL_X[cell],
+						CELL_Y[cell], BRICK_WIDTH, BRICK_HEIGHT, cellNormal);
+
+				if (time != Collision.NO_COLLISION && (earliest == Collision.NO_COLLISION || time < earliest)) {
+
+					earliest = time;
+					normal[0] = cellNormal[0];
+					normal[1] = cellNormal[1];
+					hitCell = cell;
+
+				}
+
+			}
+
+		}
+
+		return earliest;
+
+	}
+
+	/**
+	 * method: getHitCell();
+	 *
+	 * Returns the cell of the brick hit during the last sweep().
+	 *
+	 * @return the cell or NO_BRICK if nothing was hit
+	 */
+	public int getHitCell() {
+
+		return hitCell;
+
+	}
+
+	/**
+	 * method: cellOf();
+	 *
+	 * Returns the row/column containing the coordinate. The separation between
+	 * bricks is counted as part of the cell before it. The result may lie outside
+	 * of the grid if the coordinate does.
+	 *
+	 * @param coordinate : x or y coordinate
+	 * @param offset     : coordinate of the first cell
+	 * @param distance   : distance between neighbouring cells
+	 * @return the row/column index
+	 */
+	private static int cellOf(double coordinate, double offset, double distance) {
+
+		return (int) Math.floor((coordinate - offset) / distance);
+
+	}
+
+	/** One bit per cell, set if there is a brick in it */
+	private long[] live;
+
+	/** Amount of set bits in live, kept up to date by put() and remove() */
+	private int count;
+
+	private int hitCell = NO_BRICK;
+
+	private double[] cellNormal = new double[2];
+
+}
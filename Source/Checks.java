@@ -0,0 +1,261 @@
+/*
+ * File: Checks.java
+ * ---------------------
+ * This program checks what breakout promises to cost while nothing happens:
+ * the animations that keep running while the game is idle, and the head-up
+ * display and the name input, which are looked at often but only change once
+ * in a while. Unlike the benchmarks, every check has a limit, and the program
+ * exits with status 1 if any check goes over it, so it can be run after every
+ * build.
+ *
+ * The checks measure with the management beans of the JVM: the CPU time of a
+ * thread over a few seconds of wall time, and the bytes a thread allocates.
+ *
+ * Usage: java Checks [name filter]
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Checks implements BreakoutConstants {
+
+	/** Time the checks run before and while they measure, in milliseconds */
+	private static final long WARMUP_TIME = 1000;
+	private static final long MEASURE_TIME = 3000;
+
+	/** Most CPU time an idle animation may take, as a share of the wall time */
+	private static final double MAX_IDLE_CPU_SHARE = 0.01;
+
+	public static void main(String[] args) throws InterruptedException {
+
+		String filter = args.length > 0 ? args[0] : "";
+
+		int failed = 0;
+
+		for (Check check : checks()) {
+
+			if (!check.name.contains(filter)) continue;
+
+			boolean passed = check.run();
+
+			if (!passed) failed++;
+
+			System.out.printf("%-32s %-8s %s%n", check.name, passed ? "ok" : "FAILED", check.result);
+		}
+
+		System.exit(failed > 0 ? 1 : 0);
+	}
+
+	/**
+	 * method: findThread();
+	 *
+	 * @param name : Name of a thread
+	 * @return the live thread with the name, null if there is none
+	 */
+	private static Thread findThread(String name) {
+
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+
+			if (thread.getName().equals(name)) return thread;
+		}
+
+		return null;
+	}
+
+	/**
+	 * method: checks();
+	 *
+	 * @return all the checks
+	 */
+	private static List<Check> checks() {
+
+		List<Check> checks = new ArrayList<Check>();
+
+		/* The paddle levitating on the animation thread, with no ball around. */
+		checks.add(new Check("paddle.idleCpu") {
+
+			public boolean run() throws InterruptedException {
+
+				if (!threads.isThreadCpuTimeSupported()) return skip("CPU time not measured by this JVM");
+
+				Paddle paddle = new Paddle(PADDLE_WIDTH, PADDLE_HEIGHT);
+
+				Animator.play(paddle);
+
+				Thread.sleep(WARMUP_TIME);
+
+				Thread animator = findThread("Animator");
+
+				if (animator == null) return fail("no animation thread");
+
+				long start = threads.getThreadCpuTime(animator.getId());
+
+				Thread.sleep(MEASURE_TIME);
+
+				long cpuTime = threads.getThreadCpuTime(animator.getId()) - start;
+
+				paddle.exit();
+				Animator.stop(paddle);
+
+				double share = cpuTime / (MEASURE_TIME * 1e6);
+
+				String result = String.format("%.2f%% of a core (at most %.2f%%)", share * 100,
+						MAX_IDLE_CPU_SHARE * 100);
+
+				return share <= MAX_IDLE_CPU_SHARE ? pass(result) : fail(result);
+			}
+		});
+
+		/*
+		 * A few seconds of the timer and the score board updated on every step, as
+		 * in a game without hits. Only the steps between two changes of the shown
+		 * second are measured, a new second needs a new label text.
+		 */
+		checks.add(new Check("hud.idleTicks") {
+
+			public boolean run() {
+
+				if (!isAllocationMeasured()) return skip("allocations not measured by this JVM");
+
+				HudLabel timer = new HudLabel(HighscoreList.TIME_LENGTH);
+				HudLabel scoreBoard = new HudLabel(6);
+
+				long score = 4200;
+				long bytes = 0;
+				int ticks = 0;
+
+				for (int second = 0; second < MEASURE_TIME / 1000; second++) {
+
+					timer.setTime(second * 1000);
+					scoreBoard.setNumber(score);
+
+					long start = allocatedBytes();
+
+					for (int step = 1; step < SIMULATION_RATE; step++) {
+
+						timer.setTime(second * 1000 + step * 1000 / SIMULATION_RATE);
+						scoreBoard.setNumber(score);
+
+						ticks++;
+					}
+
+					bytes += allocatedBytes() - start;
+				}
+
+				String result = bytes + " B in " + ticks + " steps (at most 0)";
+
+				return bytes == 0 ? pass(result) : fail(result);
+			}
+		});
+
+		/*
+		 * The game thread asking for a name, as askForInput() does, while no key
+		 * is pressed. The label is only updated by the key listener, so the thread
+		 * just waits for the input page to be left.
+		 */
+		checks.add(new Check("input.idleWait") {
+
+			public boolean run() throws InterruptedException {
+
+				if (!isAllocationMeasured()) return skip("allocations not measured by this JVM");
+
+				final MenuState menu = new MenuState(MenuPages.HIGHSCORE_INPUT);
+
+				Thread input = new Thread("Input") {
+
+					public void run() {
+
+						menu.awaitLeaving(MenuPages.HIGHSCORE_INPUT);
+					}
+				};
+
+				input.start();
+
+				Thread.sleep(WARMUP_TIME);
+
+				long start = allocatedBytes(input);
+
+				Thread.sleep(MEASURE_TIME);
+
+				long bytes = allocatedBytes(input) - start;
+
+				menu.setPage(MenuPages.END_MENU);
+				input.join();
+
+				String result = bytes + " B in " + MEASURE_TIME / 1000 + " s (at most 0)";
+
+				return bytes == 0 ? pass(result) : fail(result);
+			}
+		});
+
+		return checks;
+	}
+
+	/**
+	 * A check: run() measures something, keeps a description of what it measured
+	 * in result and returns whether it stayed within its limit.
+	 */
+	private static abstract class Check {
+
+		public Check(String name) {
+
+			this.name = name;
+		}
+
+		public abstract boolean run() throws InterruptedException;
+
+		protected boolean pass(String result) {
+
+			this.result = result;
+
+			return true;
+		}
+
+		protected boolean fail(String result) {
+
+			this.result = result;
+
+			return false;
+		}
+
+		/** Passes a check that can't be measured here */
+		protected boolean skip(String reason) {
+
+			return pass("skipped, " + reason);
+		}
+
+		/**
+		 * @return true if the JVM counts the bytes allocated by a thread
+		 */
+		protected boolean isAllocationMeasured() {
+
+			return threads instanceof com.sun.management.ThreadMXBean
+					&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported();
+		}
+
+		/**
+		 * @return bytes allocated by the current thread so far
+		 */
+		protected long allocatedBytes() {
+
+			return allocatedBytes(Thread.currentThread());
+		}
+
+		/**
+		 * @param thread : A live thread
+		 * @return bytes allocated by the thread so far
+		 */
+		protected long allocatedBytes(Thread thread) {
+
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread.getId());
+		}
+
+		protected ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		private String name;
+		private String result = "";
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * File: Collision.java
+ * ---------------------
+ * This class holds the geometry used for detecting collisions between the ball
+ * and the rectangular objects in breakout. The ball is swept along its path,
+ * so the exact moment of impact is found no matter how fast it moves.
+ */
+
+public final class Collision {
+
+	/** Value returned when no collision occurs */
+	public static final double NO_COLLISION = -1;
+
+	private Collision() {
+
+	}
+
+	/**
+	 * method: sweepCircleVsRect();
+	 *
+	 * Moves a circle along (dx, dy) and returns the fraction of that movement after
+	 * which it first touches an axis aligned rectangle. The circle only collides
+	 * with the rectangle if it's moving towards it, so a circle that is already
+	 * touching the rectangle can still move away from it.
+	 *
+	 * The test is done by tracing the path of the center against the rectangle
+	 * grown by the radius (with rounded corners).
+	 *
+	 * @param centerX, centerY : center of the circle at the start of the movement
+	 * @param radius           : radius of the circle
+	 * @param dx, dy           : the movement
+	 * @param left, top        : upper left corner of the rectangle
+	 * @param width, height    : dimensions of the rectangle
+	 * @param normal           : receives the unit normal of the rectangle at the
+	 *                         point of impact (pointing towards the circle)
+	 * @return time of impact in the range [0; 1] or NO_COLLISION
+	 */
+	public static double sweepCircleVsRect(double centerX, double centerY, double radius, double dx, double dy,
+			double left, double top, double width, double height, double[] normal) {
+
+		double right = left + width;
+		double bottom = top + height;
+
+		/* The point of the rectangle closest to the center of the circle. */
+		double closestX = clamp(centerX, left, right);
+		double closestY = clamp(centerY, top, bottom);
+
+		double offsetX = centerX - closestX;
+		double offsetY = centerY - closestY;
+		double distanceSq = offsetX * offsetX + offsetY * offsetY;
+
+		/* The circle is already touching the rectangle. */
+		if (distanceSq <= radius * radius) {
+
+			if (distanceSq > 0) {
+
+				double distance = Math.sqrt(distanceSq);
+
+				normal[0] = offsetX / distance;
+				normal[1] = offsetY / distance;
+
+			} else {
+
+				insideNormal(centerX, centerY, left, top, right, bottom, normal);
+			}
+
+			return normal[0] * dx + normal[1] * dy < 0 ? 0 : NO_COLLISION;
+		}
+
+		/* Slab test against the rectangle grown by the radius. */
+		double enterX, exitX, enterY, exitY;
+
+		if (dx == 0) {
+
+			if (centerX < left - radius || centerX > right + radius) return NO_COLLISION;
+
+			enterX = Double.NEGATIVE_INFINITY;
+			exitX = Double.POSITIVE_INFINITY;
+
+		} else {
+
+			double t1 = (left - radius - centerX) / dx;
+			double t2 = (right + radius - centerX) / dx;
+
+			enterX = Math.min(t1, t2);
+			exitX = Math.max(t1, t2);
+		}
+
+		if (dy == 0) {
+
+			if (centerY < top - radius || centerY > bottom + radius) return NO_COLLISION;
+
+			enterY = Double.NEGATIVE_INFINITY;
+			exitY = Double.POSITIVE_INFINITY;
+
+		} else {
+
+			double t1 = (top - radius - centerY) / dy;
+			double t2 = (bottom + radius - centerY) / dy;
+
+			enterY = Math.min(t1, t2);
+			exitY = Math.max(t1, t2);
+		}
+
+		double enter = Math.max(enterX, enterY);
+		double exit = Math.min(exitX, exitY);
+
+		if (enter > exit || enter > 1 || exit < 0) return NO_COLLISION;
+
+		/*
+		 * Starting inside the grown rectangle without touching means the center is
+		 * next to a corner, the corner test below takes it from there.
+		 */
+		enter = Math.max(enter, 0);
+
+		double hitX = centerX + enter * dx;
+		double hitY = centerY + enter * dy;
+
+		/* The center enters next to one of the sides. */
+		if (hitX >= left && hitX <= right) {
+
+			normal[0] = 0;
+			normal[1] = dy > 0 ? -1 : 1;
+			return enter;
+		}
+
+		if (hitY >= top && hitY <= bottom) {
+
+			normal[0] = dx > 0 ? -1 : 1;
+			normal[1] = 0;
+			return enter;
+		}
+
+		/* The center enters next to a corner, where the grown rectangle is rounded. */
+		double cornerX = hitX < left ? left : right;
+		double cornerY = hitY < top ? top : bottom;
+
+		double time = sweepPointVsCircle(centerX - cornerX, centerY - cornerY, dx, dy, radius);
+
+		if (time == NO_COLLISION) return NO_COLLISION;
+
+		normal[0] = (centerX + time * dx - cornerX) / radius;
+		normal[1] = (centerY + time * dy - cornerY) / radius;
+
+		return time;
+	}
+
+	/**
+	 * method: contactAngle();
+	 *
+	 * Turns the normal of an impact into the side of the ball that was hit, as a
+	 * multiple of 90 degrees (counter-clockwise from the positive x axis with y
+	 * pointing up). For a corner hit it picks the side that was approached
+	 * faster, so bouncing off that side always sends the ball away from the
+	 * object.
+	 *
+	 * @param normalX, normalY     : normal of the impact
+	 * @param velocityX, velocityY : velocity of the ball relative to the object
+	 * @return 0, 90, 180 or 270
+	 */
+	public static int contactAngle(double normalX, double normalY, double velocityX, double velocityY) {
+
+		if (velocityX * normalX < velocityY * normalY) return normalX < 0 ? 0 : 180;
+		else return normalY > 0 ? 90 : 270;
+	}
+
+	/**
+	 * method: sweepPointVsCircle();
+	 *
+	 * Returns the first time at which a point moving along (dx, dy) from an offset
+	 * relative to the center of a circle reaches the circle.
+	 *
+	 * @param offsetX, offsetY : start of the point relative to the center
+	 * @param dx, dy           : the movement
+	 * @param radius           : radius of the circle
+	 * @return time in the range [0; 1] or NO_COLLISION
+	 */
+	private static double sweepPointVsCircle(double offsetX, double offsetY, double dx, double dy, double radius) {
+
+		double a = dx * dx + dy * dy;
+		double b = offsetX * dx + offsetY * dy;
+		double c = offsetX * offsetX + offsetY * offsetY - radius * radius;
+
+		/* Not moving towards the circle. */
+		if (a == 0 || b >= 0) return NO_COLLISION;
+
+		double discriminant = b * b - a * c;
+
+		if (discriminant < 0) return NO_COLLISION;
+
+		double time = (-b - Math.sqrt(discriminant)) / a;
+
+		return time >= 0 && time <= 1 ? time : NO_COLLISION;
+	}
+
+	/**
+	 * method: insideNormal();
+	 *
+	 * Writes the normal of the side of the rectangle that's closest to a point
+	 * inside of it.
+	 */
+	private static void insideNormal(double x, double y, double left, double top, double right, double bottom,
+			double[] normal) {
+
+		double toLeft = x - left, toRight = right - x;
+		double toTop = y - top, toBottom = bottom - y;
+
+		normal[0] = 0;
+		normal[1] = 0;
+
+		if (Math.min(toLeft, toRight) < Math.min(toTop, toBottom)) normal[0] = toLeft < toRight ? -1 : 1;
+		else normal[1] = toTop < toBottom ? -1 : 1;
+	}
+
+	private static double clamp(double value, double min, double max) {
+
+		return value < min ? min : (value > max ? max : value);
+	}
+
+}
@@ -3,6 +3,8 @@
  * File: FancyFont.java 
  * --------------------- 
  * This class creates a GCompound consisting of GLabels that can change colors.
+ * The font and the widths of the lines come from a FontCache, so a label with
+ * the same text is laid out without measuring it again.
  */
 
 import java.awt.Color;
@@ -11,7 +13,7 @@ import java.awt.Font;
 import acm.graphics.*;
 import acm.util.RandomGenerator;
 
-public class FancyFont extends GCompound implements Runnable {
+public class FancyFont extends GCompound implements Animation {
 
 	/** Delay between frames when changing color */
 	private static final int ANIMATION_FRAME_DELAY = 7;
@@ -20,15 +22,16 @@ public class FancyFont extends GCompound implements Runnable {
 	 * Constructor:
 	 * 
 	 * @param text      : Text for the label
-	 * @param font      : Base font for the label
+	 * @param fonts     : The fonts of the game
 	 * @param fontSize  : The size of the font
 	 * @param baseColor : The base color
 	 */
-	public FancyFont(String text, Font font, int fontSize, Color baseColor) {
+	public FancyFont(String text, FontCache fonts, int fontSize, Color baseColor) {
 
 		this.text = text;
 		this.baseColor = baseColor;
-		this.font = font.deriveFont(Font.BOLD, fontSize);
+		this.fonts = fonts;
+		this.font = fonts.getFont(Font.BOLD, fontSize);
 
 		lines = 1;
 
@@ -52,15 +55,37 @@ public class FancyFont extends GCompound implements Runnable {
 	}
 
 	/**
-	 * @see java.lang.Runnable#run()
+	 * @see Animation#start()
 	 */
-	public void run() {
+	public void start() {
 
 		exit = false;
 
+		colorR = 1;
+		colorG = (short) rando.nextInt(0, 255);
+		colorB = (short) rando.nextInt(0, 255);
+		iterator = 1;
+
+	}
+
+	/**
+	 * @see Animation#step()
+	 */
+	public int step() {
+
+		if (!currState || exit) {
+
+			if (!currState) setLineColor(baseColor);
+
+			exit = true;
+
+			return FINISHED;
+
+		}
+
 		changeColors();
 
-		exit = true;
+		return ANIMATION_FRAME_DELAY;
 
 	}
 
@@ -93,42 +118,30 @@ public class FancyFont extends GCompound implements Runnable {
 	/**
 	 * method: changeColors();
 	 * 
-	 * Changes the colors of the lines to something random or the original.
+	 * Changes the colors of the lines to the next color of the random animation.
 	 */
-	public void changeColors() {
-
-		if (currState) {
-
-			Color color;
-
-			short colorR = 1, colorG = (short) rando.nextInt(0, 255), colorB = (short) rando.nextInt(0, 255);
-			short iterator = 1;
-
-			while (!exit) {
-
-				color = new Color(colorR, colorG, colorB);
-
-				for (int j = 0; j < lines; j++) {
-
-					labels[j].setColor(color);
+	private void changeColors() {
 
-				}
+		setLineColor(new Color(colorR, colorG, colorB));
 
-				pause(ANIMATION_FRAME_DELAY);
+		iterator *= (colorR >= 255 || colorR <= 0) ? -1 : 1;
 
-				iterator *= (colorR >= 255 || colorR <= 0) ? -1 : 1;
+		colorR += iterator;
 
-				colorR += iterator;
-
-			}
-
-		} else {
+	}
 
-			for (int i = 0; i < lines; i++) {
+	/**
+	 * method: setLineColor();
+	 * 
+	 * Sets the color of all the lines, the compound keeps a color of its own.
+	 * 
+	 * @param color : The new color
+	 */
+	private void setLineColor(Color color) {
 
-				labels[i].setColor(baseColor);
+		for (int i = 0; i < lines; i++) {
 
-			}
+			labels[i].setColor(color);
 
 		}
 
@@ -137,9 +150,9 @@ public class FancyFont extends GCompound implements Runnable {
 	/**
 	 * method: getThreadState();
 	 * 
-	 * returns the state of the thread.
+	 * returns the state of the animation.
 	 * 
-	 * @return boolean true -> thread not running : false -> thread running
+	 * @return boolean true -> animation not playing : false -> animation playing
 	 */
 	public boolean getThreadState() {
 
@@ -147,6 +160,24 @@ public class FancyFont extends GCompound implements Runnable {
 
 	}
 
+	/**
+	 * method: reset();
+	 * 
+	 * Stops the animation and brings back the base color, so the label can be
+	 * shown again.
+	 */
+	public void reset() {
+
+		Animator.stop(this);
+
+		exit = true;
+		currState = false;
+
+		setLineColor(baseColor);
+		setVisible(true);
+
+	}
+
 	/**
 	 * method: exit();
 	 * 
@@ -186,6 +217,7 @@ public class FancyFont extends GCompound implements Runnable {
 
 		int lastCut = 0, currLabel = 0;
 		double currY = 0;
+		double lineHeight = fonts.getMetrics(font).getHeight();
 
 		for (int i = 0; i < textLength; i++) {
 
@@ -193,9 +225,9 @@ public class FancyFont extends GCompound implements Runnable {
 
 				createLine(currLabel, text.substring(lastCut, i), font);
 
-				add(labels[currLabel], -labels[currLabel].getWidth() / 2, currY);
+				add(labels[currLabel], -fonts.getWidth(font, labels[currLabel].getLabel()) / 2.0, currY);
 
-				currY += labels[currLabel].getHeight();
+				currY += lineHeight;
 
 				lastCut = i + 1;
 				currLabel++;
@@ -206,7 +238,7 @@ public class FancyFont extends GCompound implements Runnable {
 
 		createLine(currLabel, text.substring(lastCut), font);
 
-		add(labels[currLabel], -labels[currLabel].getWidth() / 2, currY);
+		add(labels[currLabel], -fonts.getWidth(font, labels[currLabel].getLabel()) / 2.0, currY);
 
 	}
 
@@ -216,11 +248,17 @@ public class FancyFont extends GCompound implements Runnable {
 
 	private int lines;
 	private String text;
+	private FontCache fonts;
 	private Font font;
 	private Color baseColor;
 
 	private boolean currState;
 
+	private short colorR;
+	private short colorG;
+	private short colorB;
+	private short iterator;
+
 	private volatile boolean exit = true;
 
 }
\ No newline at end of file
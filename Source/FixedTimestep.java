@@ -0,0 +1,232 @@
+/*
+ * File: FixedTimestep.java
+ * ---------------------
+ * This class drives a game loop that advances the simulation in steps of a
+ * fixed length, independent of how often the screen is redrawn. The time that
+ * passes between frames is collected and turned into simulation steps, the left
+ * over fraction of a step can be used to interpolate what is drawn.
+ */
+
+public class FixedTimestep {
+
+	/** Nanoseconds in a second */
+	private static final long SECOND = 1000000000L;
+
+	/**
+	 * Constructor:
+	 *
+	 * @param stepsPerSecond   : Simulation rate
+	 * @param framesPerSecond  : Rate at which frames are drawn
+	 * @param maxStepsPerFrame : The most steps that are simulated to catch up in
+	 *                         one frame, the rest is dropped
+	 */
+	public FixedTimestep(int stepsPerSecond, int framesPerSecond, int maxStepsPerFrame) {
+
+		this.stepLength = SECOND / stepsPerSecond;
+		this.frameLength = SECOND / framesPerSecond;
+		this.maxStepsPerFrame = maxStepsPerFrame;
+
+		/* A frame on time runs up to this many steps, rounded up. */
+		this.stepsPerFrame = (stepsPerSecond + framesPerSecond - 1) / framesPerSecond;
+
+		reset();
+
+	}
+
+	/**
+	 * method: reset();
+	 *
+	 * Forgets the time collected so far. Called when the game was stopped for a
+	 * while (pause, waiting for a click), so that time isn't simulated.
+	 */
+	public void reset() {
+
+		accumulator = 0;
+		stepsThisFrame = 0;
+		lastTime = System.nanoTime();
+		frameDeadline = lastTime + frameLength;
+
+	}
+
+	/**
+	 * method: beginFrame();
+	 *
+	 * Adds the time passed since the previous frame to the accumulator. If that is
+	 * more than maxStepsPerFrame steps, the rest is dropped, so a slow frame can't
+	 * make the next one even slower.
+	 */
+	public void beginFrame() {
+
+		long now = System.nanoTime();
+
+		accumulator += now - lastTime;
+		lastTime = now;
+
+		long maxAccumulator = maxStepsPerFrame * stepLength;
+
+		if (accumulator > maxAccumulator) {
+
+			droppedSteps += (accumulator - maxAccumulator) / stepLength;
+			accumulator = maxAccumulator + accumulator % stepLength;
+
+		}
+
+		stepsThisFrame = 0;
+
+	}
+
+	/**
+	 * method: nextStep();
+	 *
+	 * Takes one step worth of time from the accumulator.
+	 *
+	 * @return true if a step should be simulated, false when the frame is done
+	 */
+	public boolean nextStep() {
+
+		if (accumulator < stepLength) return false;
+
+		accumulator -= stepLength;
+
+		steps++;
+		stepsThisFrame++;
+
+		/* Only the steps beyond a frame's share are catching up. */
+		if (stepsThisFrame > stepsPerFrame) caughtUpSteps++;
+
+		return true;
+
+	}
+
+	/**
+	 * method: getAlpha();
+	 *
+	 * Returns how far the simulation is into the next step, used to interpolate
+	 * between the previous and the current state when drawing.
+	 *
+	 * @return a value in the range [0; 1)
+	 */
+	public double getAlpha() {
+
+		return (double) accumulator / stepLength;
+
+	}
+
+	/**
+	 * method: endFrame();
+	 *
+	 * Sleeps until it's time for the next frame. The deadlines are fixed, so the
+	 * frame rate doesn't drift if one frame takes longer.
+	 */
+	public void endFrame() {
+
+		long remaining = frameDeadline - System.nanoTime();
+
+		if (remaining > 0) {
+
+			try {
+
+				Thread.sleep(remaining / 1000000, (int) (remaining % 1000000));
+
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+
+			}
+
+			frameDeadline += frameLength;
+
+		} else {
+
+			/* Too late for this frame, start counting from now. */
+			frameDeadline = System.nanoTime() + frameLength;
+
+		}
+
+	}
+
+	/**
+	 * method: getStepLength();
+	 *
+	 * @return length of a simulation step in nanoseconds
+	 */
+	public long getStepLength() {
+
+		return stepLength;
+
+	}
+
+	/**
+	 * method: getSteps();
+	 *
+	 * @return amount of steps simulated
+	 */
+	public long getSteps() {
+
+		return steps;
+
+	}
+
+	/**
+	 * method: getCaughtUpSteps();
+	 *
+	 * @return amount of steps that were simulated in addition to the share of a
+	 *         frame that's on time (steps per second / frames per second, rounded
+	 *         up) in the same frame
+	 */
+	public long getCaughtUpSteps() {
+
+		return caughtUpSteps;
+
+	}
+
+	/**
+	 * method: getDroppedSteps();
+	 *
+	 * @return amount of steps that were skipped because the game fell too far
+	 *         behind
+	 */
+	public long getDroppedSteps() {
+
+		return droppedSteps;
+
+	}
+
+	/**
+	 * method: clearStatistics();
+	 *
+	 * Resets the step counters.
+	 */
+	public void clearStatistics() {
+
+		steps = 0;
+		caughtUpSteps = 0;
+		droppedSteps = 0;
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+
+		return steps + " steps, " + caughtUpSteps + " caught up, " + droppedSteps + " dropped";
+
+	}
+
+	private final long stepLength;
+	private final long frameLength;
+	private final int maxStepsPerFrame;
+	private final int stepsPerFrame;
+
+	private long accumulator;
+	private long lastTime;
+	private long frameDeadline;
+
+	private int stepsThisFrame;
+
+	private long steps;
+	private long caughtUpSteps;
+	private long droppedSteps;
+
+}
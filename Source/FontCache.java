@@ -0,0 +1,119 @@
+/*
+ * File: FontCache.java
+ * ---------------------
+ * This class derives the fonts of breakout from the base font once per style
+ * and size, and keeps their metrics and the widths of the strings measured
+ * with them, so labels that are shown again and again aren't measured again.
+ */
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FontCache {
+
+	/** Most widths kept per font, the labels with changing text would fill it */
+	private static final int MAX_WIDTHS = 256;
+
+	/**
+	 * Constructor:
+	 *
+	 * @param base : The font all the others are derived from
+	 */
+	public FontCache(Font base) {
+
+		this.base = base;
+
+		graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+	}
+
+	/**
+	 * method: getFont();
+	 *
+	 * @param style : Style of the font (Font.PLAIN, Font.BOLD...)
+	 * @param size  : Size of the font
+	 * @return the base font in the given style and size
+	 */
+	public synchronized Font getFont(int style, int size) {
+
+		Integer key = style << 16 | size;
+
+		Font font = fonts.get(key);
+
+		if (font == null) {
+
+			font = base.deriveFont(style, size);
+
+			fonts.put(key, font);
+		}
+
+		return font;
+	}
+
+	/**
+	 * method: getMetrics();
+	 *
+	 * @param font : A font
+	 * @return the metrics of the font
+	 */
+	public synchronized FontMetrics getMetrics(Font font) {
+
+		FontMetrics metrics = this.metrics.get(font);
+
+		if (metrics == null) {
+
+			metrics = graphics.getFontMetrics(font);
+
+			this.metrics.put(font, metrics);
+		}
+
+		return metrics;
+	}
+
+	/**
+	 * method: getWidth();
+	 *
+	 * @param font : A font
+	 * @param text : One line of text
+	 * @return the width of the text written in the font, as a GLabel measures it
+	 */
+	public synchronized int getWidth(Font font, String text) {
+
+		Map<String, Integer> fontWidths = widths.get(font);
+
+		if (fontWidths == null) {
+
+			fontWidths = new HashMap<String, Integer>();
+
+			widths.put(font, fontWidths);
+
+		} else if (fontWidths.size() >= MAX_WIDTHS) {
+
+			fontWidths.clear();
+		}
+
+		Integer width = fontWidths.get(text);
+
+		if (width == null) {
+
+			width = getMetrics(font).stringWidth(text);
+
+			fontWidths.put(text, width);
+		}
+
+		return width;
+	}
+
+	private Font base;
+
+	/** Only used for measuring */
+	private Graphics2D graphics;
+
+	private Map<Integer, Font> fonts = new HashMap<Integer, Font>();
+	private Map<Font, FontMetrics> metrics = new HashMap<Font, FontMetrics>();
+	private Map<Font, Map<String, Integer>> widths = new HashMap<Font, Map<String, Integer>>();
+
+}
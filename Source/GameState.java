@@ -0,0 +1,206 @@
+/*
+ * File: GameState.java
+ * ---------------------
+ * This class holds the state of one game of breakout: the ball, the paddle, the
+ * bricks, the runaway brick, the lives and the score. It's plain data, changed
+ * only by the Simulation and read by whoever draws the game, so a game can be
+ * played without anything on the screen.
+ */
+
+public class GameState implements BreakoutConstants {
+
+	/** y coordinate of the top of the paddle, it never moves vertically */
+	public static final double PADDLE_Y = HEIGHT - PADDLE_Y_OFFSET - PADDLE_HEIGHT;
+
+	/** Upper left corner of the ball, now and one step ago */
+	double ballX;
+	double ballY;
+	double previousBallX;
+	double previousBallY;
+
+	/** Movement of the ball per step */
+	double velocityX;
+	double velocityY;
+
+	/** Left side of the paddle, now and one step ago */
+	double paddleX;
+	double previousPaddleX;
+
+	/** Smoothed horizontal movement of the paddle per step */
+	double paddleSpeed;
+
+	/** The bricks still in the grid (a bitset) and the color index of every cell */
+	BrickGrid bricks = new BrickGrid();
+	int[] brickColors = new int[BrickGrid.NCELLS];
+
+	/** The runaway brick: its cell, upper left corner and movement per step */
+	int runawayCell = BrickGrid.NO_BRICK;
+	double runawayX;
+	double runawayY;
+	double previousRunawayX;
+	double runawayVelocity;
+	int runawayLives;
+
+	/** Steps left before the runaway brick can be hit again */
+	int runawayCooldown;
+
+	int livesLeft;
+	int score;
+	int maxScore;
+
+	/** True while the ball waits to be served */
+	boolean serving;
+
+	/** Steps simulated in this game */
+	long steps;
+
+	/**
+	 * method: isOver();
+	 *
+	 * @return true if the game was won or lost
+	 */
+	public boolean isOver() {
+
+		return livesLeft == 0 || isWon();
+
+	}
+
+	/**
+	 * method: isWon();
+	 *
+	 * @return true if all the bricks were destroyed
+	 */
+	public boolean isWon() {
+
+		return bricks.isEmpty() && (runawayCell == BrickGrid.NO_BRICK || runawayLives == 0);
+
+	}
+
+	/**
+	 * method: isServing();
+	 *
+	 * @return true while the ball waits to be served
+	 */
+	public boolean isServing() {
+
+		return serving;
+
+	}
+
+	/**
+	 * method: getBallX();
+	 *
+	 * @param alpha : How far the game is into the next step
+	 * @return x coordinate of the ball, interpolated between the last two steps
+	 */
+	public double getBallX(double alpha) {
+
+		return previousBallX + (ballX - previousBallX) * alpha;
+
+	}
+
+	/**
+	 * method: getBallY();
+	 *
+	 * @param alpha : How far the game is into the next step
+	 * @return y coordinate of the ball, interpolated between the last two steps
+	 */
+	public double getBallY(double alpha) {
+
+		return previousBallY + (ballY - previousBallY) * alpha;
+
+	}
+
+	/**
+	 * method: getPaddleX();
+	 *
+	 * @param alpha : How far the game is into the next step
+	 * @return x coordinate of the paddle, interpolated between the last two steps
+	 */
+	public double getPaddleX(double alpha) {
+
+		return previousPaddleX + (paddleX - previousPaddleX) * alpha;
+
+	}
+
+	/**
+	 * method: getRunawayX();
+	 *
+	 * @param alpha : How far the game is into the next step
+	 * @return x coordinate of the runaway brick, interpolated between the last
+	 *         two steps
+	 */
+	public double getRunawayX(double alpha) {
+
+		return previousRunawayX + (runawayX - previousRunawayX) * alpha;
+
+	}
+
+	/**
+	 * method: getRunawayCell();
+	 *
+	 * @return the cell the runaway brick came from or BrickGrid.NO_BRICK
+	 */
+	public int getRunawayCell() {
+
+		return runawayCell;
+
+	}
+
+	/**
+	 * method: getBrickColor();
+	 *
+	 * @param cell : The cell of the brick
+	 * @return index of the brick's color in BRICK_COLORS
+	 */
+	public int getBrickColor(int cell) {
+
+		return brickColors[cell];
+
+	}
+
+	/**
+	 * method: getLivesLeft();
+	 *
+	 * @return amount of lives left
+	 */
+	public int getLivesLeft() {
+
+		return livesLeft;
+
+	}
+
+	/**
+	 * method: getScore();
+	 *
+	 * @return the score
+	 */
+	public int getScore() {
+
+		return score;
+
+	}
+
+	/**
+	 * method: getMaxScore();
+	 *
+	 * @return the score for destroying all the bricks
+	 */
+	public int getMaxScore() {
+
+		return maxScore;
+
+	}
+
+	/**
+	 * method: getSteps();
+	 *
+	 * @return amount of steps simulated in this game
+	 */
+	public long getSteps() {
+
+		return steps;
+
+	}
+
+}
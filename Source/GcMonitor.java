@@ -0,0 +1,214 @@
+/*
+ * File: GcMonitor.java
+ * ---------------------
+ * This class watches the memory pressure of the game loop: the bytes the loop
+ * thread allocates in every frame, measured with the allocation counter of the
+ * thread, and the collections the garbage collectors ran meanwhile, with the
+ * time they took. Frames that allocate more than the budget are counted, so
+ * it's easy to tell whether the loop keeps the collector out of the game.
+ */
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+public class GcMonitor {
+
+	/**
+	 * Constructor:
+	 *
+	 * @param frameBudget : The most bytes a frame should allocate
+	 */
+	public GcMonitor(long frameBudget) {
+
+		this.frameBudget = frameBudget;
+
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		}
+
+		collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+		clearStatistics();
+
+	}
+
+	/**
+	 * method: isSupported();
+	 *
+	 * @return true if the JVM can count the bytes allocated by a thread
+	 */
+	public boolean isSupported() {
+
+		return threadBean != null;
+
+	}
+
+	/**
+	 * method: beginFrame();
+	 *
+	 * Starts counting the bytes allocated by the current thread.
+	 */
+	public void beginFrame() {
+
+		frameStart = allocatedBytes();
+
+	}
+
+	/**
+	 * method: endFrame();
+	 *
+	 * Stops counting the bytes allocated by the current thread and adds them to
+	 * the statistics.
+	 */
+	public void endFrame() {
+
+		lastFrameBytes = allocatedBytes() - frameStart;
+
+		frames++;
+		totalBytes += lastFrameBytes;
+		maxFrameBytes = Math.max(maxFrameBytes, lastFrameBytes);
+
+		if (lastFrameBytes > frameBudget) framesOverBudget++;
+
+	}
+
+	/**
+	 * method: getLastFrameBytes();
+	 *
+	 * @return bytes allocated in the last frame
+	 */
+	public long getLastFrameBytes() {
+
+		return lastFrameBytes;
+
+	}
+
+	/**
+	 * method: getAverageFrameBytes();
+	 *
+	 * @return bytes allocated per frame on average
+	 */
+	public long getAverageFrameBytes() {
+
+		return frames > 0 ? totalBytes / frames : 0;
+
+	}
+
+	/**
+	 * method: getMaxFrameBytes();
+	 *
+	 * @return most bytes allocated in one frame
+	 */
+	public long getMaxFrameBytes() {
+
+		return maxFrameBytes;
+
+	}
+
+	/**
+	 * method: getFramesOverBudget();
+	 *
+	 * @return amount of frames that allocated more than the budget
+	 */
+	public long getFramesOverBudget() {
+
+		return framesOverBudget;
+
+	}
+
+	/**
+	 * method: getCollections();
+	 *
+	 * @return amount of collections run by all the collectors since the
+	 *         statistics were cleared
+	 */
+	public long getCollections() {
+
+		long count = 0;
+
+		for (GarbageCollectorMXBean collector : collectors) count += Math.max(collector.getCollectionCount(), 0);
+
+		return count - startCollections;
+
+	}
+
+	/**
+	 * method: getCollectionTime();
+	 *
+	 * @return milliseconds spent collecting since the statistics were cleared
+	 */
+	public long getCollectionTime() {
+
+		long time = 0;
+
+		for (GarbageCollectorMXBean collector : collectors) time += Math.max(collector.getCollectionTime(), 0);
+
+		return time - startCollectionTime;
+
+	}
+
+	/**
+	 * method: clearStatistics();
+	 *
+	 * Sets all the statistics back to zero.
+	 */
+	public void clearStatistics() {
+
+		frames = 0;
+		totalBytes = 0;
+		lastFrameBytes = 0;
+		maxFrameBytes = 0;
+		framesOverBudget = 0;
+
+		startCollections = 0;
+		startCollectionTime = 0;
+
+		startCollections = getCollections();
+		startCollectionTime = getCollectionTime();
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+
+		String allocations = isSupported()
+				? getAverageFrameBytes() + " B/frame on average, " + maxFrameBytes + " B max, " + framesOverBudget
+						+ " of " + frames + " frames over " + frameBudget + " B"
+				: "allocations not measured";
+
+		return allocations + "; " + getCollections() + " collections, " + getCollectionTime() + " ms";
+
+	}
+
+	private long allocatedBytes() {
+
+		return threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+
+	}
+
+	private final long frameBudget;
+
+	private com.sun.management.ThreadMXBean threadBean;
+	private List<GarbageCollectorMXBean> collectors;
+
+	private long frameStart;
+
+	private long frames;
+	private long totalBytes;
+	private long lastFrameBytes;
+	private long maxFrameBytes;
+	private long framesOverBudget;
+
+	private long startCollections;
+	private long startCollectionTime;
+
+}
@@ -0,0 +1,168 @@
+/*
+ * File: HeadlessBreakout.java
+ * ---------------------
+ * This program plays games of breakout without a window, with a simple
+ * computer player moving the paddle. It's meant for checking the balance and
+ * the behaviour of the game: the same seed always plays the same games.
+ *
+ * Usage: java HeadlessBreakout [games] [seed]
+ */
+
+import java.util.Random;
+
+public class HeadlessBreakout implements BreakoutConstants, SimulationListener {
+
+	/** Default amount of games and seed */
+	private static final int DEFAULT_GAMES = 1000;
+	private static final long DEFAULT_SEED = 1;
+
+	/** A game that takes longer than this (ten minutes of play) is given up */
+	private static final long MAX_STEPS = 10L * 60 * SIMULATION_RATE;
+
+	/** Fastest the computer player can move the paddle per step */
+	private static final double PLAYER_SPEED = 3;
+
+	public static void main(String[] args) {
+
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+		HeadlessBreakout runner = new HeadlessBreakout(seed);
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < games; i++) runner.play();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(runner);
+		System.out.printf("%d games in %.2f s (%.0f games/s)%n", games, seconds, games / seconds);
+	}
+
+	/**
+	 * Constructor:
+	 *
+	 * @param seed : Seed for the simulation and the computer player
+	 */
+	public HeadlessBreakout(long seed) {
+
+		simulation = new Simulation(seed, this);
+		random = new Random(seed);
+	}
+
+	/**
+	 * method: play();
+	 *
+	 * Plays one game until it's won, lost or takes too long.
+	 */
+	public void play() {
+
+		simulation.newGame();
+
+		GameState state = simulation.getState();
+
+		while (!state.isOver() && state.getSteps() < MAX_STEPS) {
+
+			if (state.isServing()) simulation.serve();
+
+			movePaddle(state);
+
+			simulation.step();
+		}
+
+		games++;
+		totalScore += state.getScore();
+		totalSteps += state.getSteps();
+
+		if (state.isWon()) won++;
+		else if (state.isOver()) lost++;
+		else givenUp++;
+	}
+
+	/**
+	 * method: movePaddle();
+	 *
+	 * The computer player moves the paddle towards the ball, aiming at a random
+	 * point of the paddle that changes after every hit.
+	 *
+	 * @param state : State of the game
+	 */
+	private void movePaddle(GameState state) {
+
+		double paddleCenter = state.getPaddleX(1) + PADDLE_WIDTH_HALF;
+		double target = state.getBallX(1) + BALL_RADIUS - aim;
+
+		double dx = Math.max(-PLAYER_SPEED, Math.min(PLAYER_SPEED, target - paddleCenter));
+
+		simulation.setPaddleTarget(paddleCenter + dx);
+	}
+
+	/**
+	 * @see SimulationListener#paddleHit()
+	 */
+	public void paddleHit() {
+
+		paddleHits++;
+
+		aim = (random.nextDouble() * 2 - 1) * PADDLE_WIDTH_HALF;
+	}
+
+	/**
+	 * @see SimulationListener#brickDestroyed(int)
+	 */
+	public void brickDestroyed(int cell) {
+
+		bricksDestroyed++;
+	}
+
+	/**
+	 * @see SimulationListener#runawayBrickChosen(int)
+	 */
+	public void runawayBrickChosen(int cell) {
+
+	}
+
+	/**
+	 * @see SimulationListener#runawayBrickHit(int)
+	 */
+	public void runawayBrickHit(int angle) {
+
+	}
+
+	/**
+	 * @see SimulationListener#lifeLost()
+	 */
+	public void lifeLost() {
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+
+		if (games == 0) return "No games played";
+
+		return games + " games: " + won + " won, " + lost + " lost, " + givenUp + " given up; average score "
+				+ totalScore / games + ", average length " + totalSteps / games / SIMULATION_RATE + " s, "
+				+ paddleHits / games + " paddle hits and " + bricksDestroyed / games + " bricks per game";
+	}
+
+	private Simulation simulation;
+
+	private Random random;
+
+	/** Offset of the point of the paddle the computer player aims at */
+	private double aim;
+
+	private long games;
+	private long won;
+	private long lost;
+	private long givenUp;
+
+	private long totalScore;
+	private long totalSteps;
+	private long paddleHits;
+	private long bricksDestroyed;
+
+}
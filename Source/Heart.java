@@ -10,10 +10,13 @@ import java.awt.Color;
 import acm.graphics.*;
 import acm.util.*;
 
-public class Heart extends GCompound implements Runnable {
+public class Heart extends GCompound implements Animation {
 
 	/** Scaling parameter for the components of the heart */
 	private static final double PART_SIZE = 3.5 / 6;
+
+	/** Height of the center polygon's halves in widths of the heart */
+	private static final double CENTER_HEIGHT = Math.sqrt(2 * PART_SIZE - 1);
 	
 	/** Parameters for the cracking animation */
 	private static final int MIN_CRACK_POINTS = 4;
@@ -44,12 +47,25 @@ public class Heart extends GCompound implements Runnable {
 	}
 
 	/**
-	 * @see java.lang.Runnable#run()
+	 * @see Animation#start()
+	 */
+	public void start() {
+
+		crackFrame = 0;
+
+	}
+
+	/**
+	 * @see Animation#step()
 	 */
-	public void run() {
+	public int step() {
+
+		if (crackFrame == crackLines.length) return FINISHED;
 
 		crack();
 
+		return PAUSE_TIME;
+
 	}
 
 	/**
@@ -72,6 +88,23 @@ public class Heart extends GCompound implements Runnable {
 
 	}
 
+	/**
+	 * method: reset();
+	 * 
+	 * Mends the heart, so it can be reused for a new game. The crack keeps its
+	 * shape. The animation has to be stopped.
+	 */
+	public void reset() {
+
+		cracked = false;
+		crackFrame = 0;
+
+		for (GLine line : crackLines) line.setVisible(false);
+
+		setColor(color);
+
+	}
+
 	/**
 	 * method: setCracked();
 	 * 
@@ -126,7 +159,7 @@ public class Heart extends GCompound implements Runnable {
 	 */
 	private void createCenter() {
 
-		double dx = width - partSize, dy = width * Math.sqrt(2 * PART_SIZE - 1);
+		double dx = width - partSize, dy = width * CENTER_HEIGHT;
 		double startX = width / 2, startY = (partSize - dy) / 2;
 
 		center = new GPolygon();
@@ -203,21 +236,16 @@ public class Heart extends GCompound implements Runnable {
 	/**
 	 * method: crack();
 	 * 
-	 * Initiates the cracking/uncracking animation.
+	 * Draws the next frame of the cracking/uncracking animation.
 	 */
 	private void crack() {
 
-		int crackPoints = crackLines.length;
-
 		/*
 		 * The animation is achieved by changing the visibility of GLine's on the heart.
 		 */
-		for (int i = 0; i < crackPoints; i++) {
+		crackLines[crackFrame].setVisible(cracked);
 
-			crackLines[i].setVisible(cracked);
-			pause(PAUSE_TIME);
-
-		}
+		crackFrame++;
 
 	}
 
@@ -231,6 +259,8 @@ public class Heart extends GCompound implements Runnable {
 	private GPolygon center;
 	private GLine[] crackLines;
 
+	private int crackFrame;
+
 	private boolean cracked;
 
 }
\ No newline at end of file
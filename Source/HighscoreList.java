@@ -0,0 +1,92 @@
+/*
+ * File: HighscoreList.java
+ * ---------------------
+ * This class holds the text side of the highscore lists: how times are written
+ * and how the lines of the old text highscore files are read. The scores are
+ * now kept by HighscoreStore as ScoreEntry records, the old files are only
+ * parsed once, when their scores are moved into a store.
+ *
+ * A line looks like "1. name - 00-01-35 | 95000", the part after '|' is the
+ * raw score (the score or the time in milliseconds).
+ */
+
+public final class HighscoreList {
+
+	private HighscoreList() {
+
+	}
+
+	/**
+	 * method: parseScore();
+	 *
+	 * Parses the score from a line of one of the highscore files.
+	 *
+	 * @param line : The line from the highscore file
+	 *
+	 * @return the score or the time in milliseconds
+	 */
+	public static long parseScore(String line) {
+
+		return Long.parseLong(line.substring(line.indexOf('|') + 2));
+	}
+
+	/**
+	 * method: parseName();
+	 *
+	 * Parses the user's alias from a line of one of the highscore files.
+	 *
+	 * @param line : The line from the highscore file
+	 * @return the alias
+	 */
+	public static String parseName(String line) {
+
+		return line.substring(line.indexOf(". ") + 2, line.lastIndexOf(" - ", line.indexOf('|')));
+	}
+
+	/** Length of a time written by formatTime() */
+	public static final int TIME_LENGTH = 8;
+
+	/**
+	 * method: formatTime();
+	 *
+	 * Returns a string representing time passed from reference point.
+	 *
+	 * @param timeInMillis : The elapsed time in milliseconds
+	 * @return a String in the format hh-mm-ss
+	 */
+	public static String formatTime(long timeInMillis) {
+
+		char[] time = new char[TIME_LENGTH];
+
+		formatTime(timeInMillis, time, 0);
+
+		return new String(time);
+	}
+
+	/**
+	 * method: formatTime();
+	 *
+	 * Writes the time in the format hh-mm-ss into a buffer, without allocating.
+	 *
+	 * @param timeInMillis : The elapsed time in milliseconds
+	 * @param buffer       : The buffer
+	 * @param offset       : Where the TIME_LENGTH characters are written
+	 */
+	public static void formatTime(long timeInMillis, char[] buffer, int offset) {
+
+		long time = timeInMillis / 1000;
+
+		writeTwoDigits(time / 3600 % 60, buffer, offset);
+		buffer[offset + 2] = '-';
+		writeTwoDigits(time / 60 % 60, buffer, offset + 3);
+		buffer[offset + 5] = '-';
+		writeTwoDigits(time % 60, buffer, offset + 6);
+	}
+
+	private static void writeTwoDigits(long value, char[] buffer, int offset) {
+
+		buffer[offset] = (char) ('0' + value / 10);
+		buffer[offset + 1] = (char) ('0' + value % 10);
+	}
+
+}
@@ -0,0 +1,939 @@
+/*
+ * File: HighscoreStore.java
+ * ---------------------
+ * This class keeps one highscore list in a binary file of fixed size records.
+ * The file is read once when the store is opened, after that the scores are
+ * kept sorted in memory. A new score is appended to the end of the file as a
+ * single record, the file is never rewritten in place.
+ *
+ * All writing is done by a writer thread, so adding or clearing scores never
+ * waits for the disk. The writer takes the scores from a bounded queue and
+ * appends all the ones waiting with a single write. The file is forced to the
+ * disk once SYNC_ENTRIES records are unsynced or SYNC_INTERVAL has passed since
+ * the first of them was written, and when the store is closed. close() is also
+ * run when the program exits. Entries are queued holding the lock, so they
+ * reach the writer in order and none can follow the one that closes the file.
+ * If writing fails, the store says so and keeps the scores in memory only.
+ *
+ * File layout: a header (MAGIC, VERSION, RECORD_SIZE, BOARD_SIZE), the board
+ * (see below) and the records, each one a ScoreEntry in its binary form. A
+ * record that was cut short or doesn't match its checksum (a crash while
+ * writing) ends the file, it and everything after it is dropped when the file
+ * is opened.
+ *
+ * Only the best MAX_STORED_HIGHSCORES scores are kept. Once the file holds as
+ * many dropped records as kept ones, it's compacted: the kept scores are
+ * written to a temporary file, which is then atomically renamed to a journal
+ * and copied over the records of the file. The file itself is never replaced,
+ * so its board can stay mapped (a mapped file can't be replaced on every
+ * system). A journal left by a crash is copied again when the file is opened.
+ *
+ * Between the header and the records lies the board: BOARD_SIZE record slots
+ * holding the best scores in order, mapped into memory. The board is rewritten
+ * whenever the best scores change and guarded by a sequence counter that's odd
+ * while it's being written, so snapshot() can copy it without locking and
+ * without reading the disk, retrying if a score was added meanwhile. Every
+ * slot also carries the checksum of its record, so a slot that's only half
+ * written when it's read is never taken for a score. The board is only a copy
+ * of the records, it's rebuilt every time the file is opened. Without a file
+ * the scores are only kept in memory, and snapshot() copies them from there.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class HighscoreStore implements BreakoutConstants {
+
+	/** File format */
+	private static final int MAGIC = 0x42484953;
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 16;
+
+	private static final int RECORD_SIZE = ScoreEntry.SIZE;
+
+	/** Records of versions 1 and 2: value, sequence, name length, name, CRC32 */
+	private static final int OLD_RECORD_SIZE = 8 + 8 + 2 + 2 * ScoreEntry.NAME_LENGTH + 4;
+
+	/** Scores on the board */
+	public static final int BOARD_SIZE = MAX_HIGHSCORE_COUNT;
+
+	/** Position of the first record */
+	private static final int RECORDS_OFFSET = HEADER_SIZE + BOARD_SIZE * RECORD_SIZE;
+
+	/** Scores waiting to be written before add() has to wait for the writer */
+	private static final int WRITE_QUEUE_SIZE = 64;
+
+	/** Unsynced records, or milliseconds since the first of them, before a sync */
+	private static final int SYNC_ENTRIES = 16;
+	private static final long SYNC_INTERVAL = 1000;
+
+	/**
+	 * method: open();
+	 *
+	 * Opens the store in the given file. If the file doesn't exist yet, the scores
+	 * of the old text highscore file are moved into it.
+	 *
+	 * @param file       : The binary highscore file
+	 * @param legacyFile : The text highscore file used before
+	 * @param time       : true if the list is sorted by time (lowest first)
+	 * @return the store
+	 */
+	public static HighscoreStore open(File file, File legacyFile, boolean time) {
+
+		boolean migrate = !file.exists() && legacyFile.exists();
+
+		return new HighscoreStore(file, migrate ? legacyFile : null, time);
+	}
+
+	/**
+	 * Constructor:
+	 *
+	 * Opens the file, reads all of its scores and starts the writer thread.
+	 *
+	 * @param file : The binary highscore file, created if it doesn't exist
+	 * @param time : true if the list is sorted by time (lowest first)
+	 */
+	public HighscoreStore(File file, boolean time) {
+
+		this(file, null, time);
+	}
+
+	private HighscoreStore(File file, File legacyFile, boolean time) {
+
+		this.file = file;
+		this.time = time;
+
+		index = new TreeSet<ScoreEntry>(time ? ASCENDING : DESCENDING);
+
+		try {
+
+			Files.deleteIfExists(temporaryFile().toPath());
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+
+			/* A compaction was cut short after its journal was complete. */
+			if (journalFile().exists()) restore(journalFile());
+
+			load();
+
+			if (legacyFile != null) importLegacyFile(legacyFile);
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+			System.out.println("Error reading file " + file.toString());
+
+			/* The scores are only kept in memory. */
+			closed = true;
+			return;
+		}
+
+		writer.setDaemon(true);
+		writer.start();
+
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * method: add();
+	 *
+	 * Adds a score to the list and hands it to the writer thread. Takes O(log n)
+	 * for the list, only the board is searched for the place of the score.
+	 *
+	 * @param name  : The user's chosen alias, cut to ScoreEntry.NAME_LENGTH
+	 *              characters
+	 * @param value : The score or the time in milliseconds
+	 * @return the place of the score on the board, starting from 1, or 0 if it
+	 *         didn't make the board
+	 */
+	public synchronized int add(String name, long value) {
+
+		ScoreEntry entry = new ScoreEntry(name, value, System.currentTimeMillis(), time, nextSequence++);
+
+		index.add(entry);
+
+		trim();
+
+		int rank = boardRank(entry);
+
+		if (rank > 0) publishBoard();
+
+		if (!closed) enqueue(entry);
+
+		return rank;
+	}
+
+	/**
+	 * method: top();
+	 *
+	 * @param count : The most entries returned
+	 * @return the best entries of the list, best first
+	 */
+	public synchronized List<ScoreEntry> top(int count) {
+
+		List<ScoreEntry> entries = new ArrayList<ScoreEntry>(Math.min(count, index.size()));
+
+		Iterator<ScoreEntry> iterator = index.iterator();
+
+		while (entries.size() < count && iterator.hasNext()) entries.add(iterator.next());
+
+		return entries;
+	}
+
+	/**
+	 * method: snapshot();
+	 *
+	 * Copies the board without locking, so it can be called while another thread
+	 * adds a score. If there is no board (the file couldn't be opened), the best
+	 * scores are copied from memory holding the lock.
+	 *
+	 * @return the best BOARD_SIZE entries of the list, best first
+	 */
+	public List<ScoreEntry> snapshot() {
+
+		while (true) {
+
+			long sequence = boardSequence;
+			MappedByteBuffer slots = board;
+
+			if (slots == null) return top(BOARD_SIZE);
+
+			if ((sequence & 1) == 0) {
+
+				List<ScoreEntry> entries = readBoard(slots);
+
+				/* The counter is volatile, so it's read again after the board. */
+				if (boardSequence == sequence) return entries;
+			}
+
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * method: size();
+	 *
+	 * @return amount of scores in the list
+	 */
+	public synchronized int size() {
+
+		return index.size();
+	}
+
+	/**
+	 * method: isTime();
+	 *
+	 * @return true if the list is sorted by time (lowest first)
+	 */
+	public boolean isTime() {
+
+		return time;
+	}
+
+	/**
+	 * method: clear();
+	 *
+	 * Removes all the scores. The file is compacted by the writer thread.
+	 */
+	public synchronized void clear() {
+
+		index.clear();
+
+		publishBoard();
+
+		if (!closed) enqueue(CLEAR);
+	}
+
+	/**
+	 * method: close();
+	 *
+	 * Waits until the writer thread has written and synced every score, then
+	 * closes the file.
+	 */
+	public void close() {
+
+		synchronized (this) {
+
+			if (closed) return;
+
+			closed = true;
+
+			/* Entries still waiting for room in the queue go before CLOSE. */
+			while (waiters > 0) {
+
+				try {
+
+					wait();
+
+				} catch (InterruptedException e) {
+
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			enqueue(CLOSE);
+		}
+
+		try {
+
+			writer.join();
+
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+		} catch (IllegalStateException e) {
+
+			/* Called by the shutdown hook itself. */
+		}
+	}
+
+	/**
+	 * method: load();
+	 *
+	 * Reads the scores from the file. A file without a valid header is started
+	 * over, a damaged record cuts the file short. A file written by an older
+	 * version or with a different board size is rewritten in the current layout.
+	 */
+	private void load() throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		channel.read(header, 0);
+		header.flip();
+
+		int version = header.remaining() >= 12 && header.getInt() == MAGIC ? header.getInt() : 0;
+
+		int recordSize = version == VERSION ? RECORD_SIZE : OLD_RECORD_SIZE;
+		long position;
+
+		if (version == 1 && header.getInt() == recordSize) position = 12;
+		else if (version >= 2 && version <= VERSION && header.getInt() == recordSize && header.remaining() == 4)
+			position = HEADER_SIZE + header.getInt() * (long) recordSize;
+		else {
+
+			if (channel.size() > 0) System.out.println("Starting over damaged highscore file " + file.toString());
+
+			compact();
+			return;
+		}
+
+		long start = position;
+
+		ByteBuffer record = ByteBuffer.allocate(recordSize);
+
+		while (true) {
+
+			record.clear();
+
+			if (channel.read(record, position) < recordSize) break;
+
+			record.flip();
+
+			ScoreEntry entry = version == VERSION ? ScoreEntry.decode(record) : decodeOldRecord(record);
+
+			if (entry == null) break;
+
+			index.add(entry);
+			nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+
+			position += recordSize;
+			recordCount++;
+		}
+
+		trim();
+
+		if (version != VERSION || start != RECORDS_OFFSET) {
+
+			compact();
+			return;
+		}
+
+		/* Whatever follows the last good record was never completely written. */
+		if (channel.size() > position) channel.truncate(position);
+
+		mapBoard();
+		publishBoard();
+	}
+
+	/**
+	 * method: importLegacyFile();
+	 *
+	 * Adds the scores of an old text highscore file. The file is streamed and the
+	 * scores are trimmed while they're added, the lines that can't be read are
+	 * moved to a ".rejected" file next to it.
+	 *
+	 * @param legacyFile : The text file
+	 */
+	private void importLegacyFile(File legacyFile) {
+
+		try {
+
+			ScoreFileValidator validator = new ScoreFileValidator(legacyFile,
+					new File(legacyFile.getPath() + ".rejected"));
+
+			validator.validate(new ScoreFileValidator.Listener() {
+
+				public void validLine(String name, long value) {
+
+					index.add(new ScoreEntry(name, value, 0, time, nextSequence++));
+
+					trim();
+				}
+			});
+
+			System.out.println(validator);
+
+			compact();
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+			System.out.println("Error reading file " + legacyFile.toString());
+		}
+	}
+
+	/**
+	 * method: boardRank();
+	 *
+	 * @param entry : An entry of the list
+	 * @return the place of the entry among the best BOARD_SIZE, starting from 1,
+	 *         or 0 if it isn't one of them
+	 */
+	private int boardRank(ScoreEntry entry) {
+
+		Iterator<ScoreEntry> iterator = index.iterator();
+
+		for (int rank = 1; rank <= BOARD_SIZE && iterator.hasNext(); rank++) {
+
+			if (iterator.next() == entry) return rank;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * method: trim();
+	 *
+	 * Drops the scores after the best MAX_STORED_HIGHSCORES.
+	 */
+	private void trim() {
+
+		while (index.size() > MAX_STORED_HIGHSCORES) index.pollLast();
+	}
+
+	/**
+	 * method: enqueue();
+	 *
+	 * Hands an entry to the writer thread. Called holding the lock. If the queue
+	 * is full, waits until the writer takes some entries, the lock is released
+	 * meanwhile, so the writer can use it.
+	 *
+	 * @param entry : The entry, CLEAR or CLOSE
+	 */
+	private void enqueue(ScoreEntry entry) {
+
+		waiters++;
+
+		try {
+
+			while (!queue.offer(entry)) {
+
+				if (writerDone) {
+
+					System.out.println("Highscore not saved, " + file.toString() + " isn't written any more");
+					return;
+				}
+
+				wait();
+			}
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+		} finally {
+
+			waiters--;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * method: write();
+	 *
+	 * The loop of the writer thread. Takes all the waiting entries at once and
+	 * appends them with a single write, syncing as described at the top.
+	 */
+	private void write() {
+
+		try {
+
+			writeEntries();
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+			System.out.println("Error writing to file " + file.toString() + ", the highscores are only kept in memory");
+
+			try {
+
+				channel.close();
+
+			} catch (IOException closeError) {
+
+				closeError.printStackTrace();
+			}
+
+		} finally {
+
+			synchronized (this) {
+
+				closed = true;
+				writerDone = true;
+
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * method: writeEntries();
+	 *
+	 * Writes the entries of the queue until the store is closed.
+	 */
+	private void writeEntries() throws IOException {
+
+		List<ScoreEntry> batch = new ArrayList<ScoreEntry>(WRITE_QUEUE_SIZE);
+		ByteBuffer records = ByteBuffer.allocate(WRITE_QUEUE_SIZE * RECORD_SIZE);
+
+		int unsynced = 0;
+		long syncTime = 0;
+
+		while (true) {
+
+			try {
+
+				ScoreEntry first = unsynced > 0
+						? queue.poll(syncTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS)
+						: queue.take();
+
+				batch.clear();
+
+				if (first != null) {
+
+					batch.add(first);
+					queue.drainTo(batch, WRITE_QUEUE_SIZE - 1);
+
+					/* There's room in the queue for the ones waiting. */
+					synchronized (this) {
+
+						notifyAll();
+					}
+				}
+
+				records.clear();
+
+				for (ScoreEntry entry : batch) {
+
+					if (entry == CLEAR) {
+
+						append(records);
+						compact();
+						unsynced = 0;
+
+					} else if (entry == CLOSE) {
+
+						append(records);
+						channel.force(false);
+						channel.close();
+						return;
+
+					} else if (entry.getSequence() >= compactedSequence) {
+
+						/* Entries added before the last compaction are already in the file. */
+						entry.encode(records);
+
+						if (unsynced++ == 0) syncTime = System.currentTimeMillis() + SYNC_INTERVAL;
+					}
+				}
+
+				append(records);
+
+				if (unsynced >= SYNC_ENTRIES || unsynced > 0 && System.currentTimeMillis() >= syncTime) {
+
+					channel.force(false);
+					unsynced = 0;
+				}
+
+				int size = size();
+
+				if (recordCount - size >= Math.max(size, 1)) {
+
+					compact();
+					unsynced = 0;
+				}
+
+			} catch (InterruptedException e) {
+
+				return;
+			}
+		}
+	}
+
+	/**
+	 * method: append();
+	 *
+	 * Writes the records in the buffer to the end of the file and empties it.
+	 *
+	 * @param records : Buffer holding whole records
+	 */
+	private void append(ByteBuffer records) throws IOException {
+
+		records.flip();
+
+		long position = RECORDS_OFFSET + recordCount * (long) RECORD_SIZE;
+
+		recordCount += records.remaining() / RECORD_SIZE;
+
+		while (records.hasRemaining()) position += channel.write(records, position);
+
+		records.clear();
+	}
+
+	/**
+	 * method: compact();
+	 *
+	 * Writes the kept scores to a temporary file, renames it to the journal and
+	 * copies it over the records of the file. Only copying the scores and
+	 * publishing the board are done holding the lock.
+	 */
+	private void compact() throws IOException {
+
+		List<ScoreEntry> entries;
+
+		synchronized (this) {
+
+			entries = new ArrayList<ScoreEntry>(index);
+			compactedSequence = nextSequence;
+		}
+
+		File temporary = temporaryFile();
+
+		FileChannel out = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+		try {
+
+			writeHeader(out);
+
+			long position = RECORDS_OFFSET;
+
+			/* The board is written by publishBoard() once the file is mapped. */
+			out.write(ByteBuffer.allocate(1), RECORDS_OFFSET - 1);
+
+			ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+			for (ScoreEntry entry : entries) {
+
+				record.clear();
+				entry.encode(record);
+				record.flip();
+
+				while (record.hasRemaining()) position += out.write(record, position);
+			}
+
+			out.force(true);
+
+		} finally {
+
+			out.close();
+		}
+
+		/* From here on the compaction is finished even if the program crashes. */
+		Files.move(temporary.toPath(), journalFile().toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		restore(journalFile());
+
+		recordCount = entries.size();
+
+		synchronized (this) {
+
+			if (board == null) mapBoard();
+
+			publishBoard();
+		}
+	}
+
+	/**
+	 * method: restore();
+	 *
+	 * Copies the header and the records of a compacted file over the file, cuts
+	 * the file to the same length and deletes the compacted file. The board
+	 * isn't copied, it's rewritten by publishBoard(). Copying again after a crash
+	 * gives the same file.
+	 *
+	 * @param journal : The compacted file
+	 */
+	private void restore(File journal) throws IOException {
+
+		FileChannel in = FileChannel.open(journal.toPath(), StandardOpenOption.READ);
+
+		try {
+
+			long size = in.size();
+
+			if (size < RECORDS_OFFSET) throw new IOException("Damaged journal " + journal.toString());
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+			while (header.hasRemaining()) in.read(header, header.position());
+
+			header.flip();
+
+			long position = RECORDS_OFFSET;
+
+			in.position(position);
+
+			while (position < size) {
+
+				long copied = channel.transferFrom(in, position, size - position);
+
+				if (copied <= 0) throw new IOException("Can't copy " + journal.toString());
+
+				position += copied;
+			}
+
+			channel.truncate(size);
+
+			/* The header last, so the file only claims the new layout once it has it. */
+			while (header.hasRemaining()) channel.write(header, header.position());
+
+			channel.force(true);
+
+		} finally {
+
+			in.close();
+		}
+
+		Files.delete(journal.toPath());
+	}
+
+	/**
+	 * method: mapBoard();
+	 *
+	 * Maps the board of the file into memory.
+	 */
+	private void mapBoard() throws IOException {
+
+		board = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, BOARD_SIZE * RECORD_SIZE);
+	}
+
+	/**
+	 * method: publishBoard();
+	 *
+	 * Writes the best scores to the board. The sequence counter is odd while the
+	 * board is being written.
+	 */
+	private void publishBoard() {
+
+		MappedByteBuffer slots = board;
+
+		if (slots == null) return;
+
+		boardSequence++;
+
+		Iterator<ScoreEntry> iterator = index.iterator();
+
+		for (int i = 0; i < BOARD_SIZE; i++) {
+
+			slots.position(i * RECORD_SIZE);
+
+			if (iterator.hasNext()) iterator.next().encode(slots);
+			else slots.put(EMPTY_SLOT, 0, RECORD_SIZE);
+		}
+
+		boardSequence++;
+	}
+
+	/**
+	 * method: readBoard();
+	 *
+	 * @param slots : The mapped board
+	 * @return the entries on the board, up to the first empty or damaged slot
+	 */
+	private static List<ScoreEntry> readBoard(MappedByteBuffer slots) {
+
+		List<ScoreEntry> entries = new ArrayList<ScoreEntry>(BOARD_SIZE);
+
+		/* A view of the board of its own, the writer moves the position of the board. */
+		ByteBuffer view = slots.duplicate();
+
+		for (int i = 0; i < BOARD_SIZE; i++) {
+
+			view.position(i * RECORD_SIZE);
+
+			ScoreEntry entry = ScoreEntry.decode(view);
+
+			if (entry == null) break;
+
+			entries.add(entry);
+		}
+
+		return entries;
+	}
+
+	private void writeHeader(FileChannel out) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(BOARD_SIZE);
+		header.flip();
+
+		while (header.hasRemaining()) out.write(header, HEADER_SIZE - header.remaining());
+	}
+
+	private File temporaryFile() {
+
+		return new File(file.getPath() + ".tmp");
+	}
+
+	private File journalFile() {
+
+		return new File(file.getPath() + ".journal");
+	}
+
+	/**
+	 * method: decodeOldRecord();
+	 *
+	 * @param record : A buffer holding one record of version 1 or 2, from
+	 *               position 0
+	 * @return the entry or null if the record is damaged
+	 */
+	private ScoreEntry decodeOldRecord(ByteBuffer record) {
+
+		if (record.getInt(OLD_RECORD_SIZE - 4) != ScoreEntry.checksum(record, 0, OLD_RECORD_SIZE - 4)) return null;
+
+		long value = record.getLong();
+		long sequence = record.getLong();
+		int length = record.getShort();
+
+		if (length < 0 || length > ScoreEntry.NAME_LENGTH) return null;
+
+		char[] name = new char[length];
+
+		for (int i = 0; i < length; i++) name[i] = record.getChar();
+
+		return new ScoreEntry(new String(name), value, 0, time, sequence);
+	}
+
+	/** Markers for the writer thread: compact the file, close the file */
+	private static final ScoreEntry CLEAR = new ScoreEntry("", 0, 0, false, -1);
+	private static final ScoreEntry CLOSE = new ScoreEntry("", 0, 0, false, -1);
+
+	/** Written to the board slots after the last entry */
+	private static final byte[] EMPTY_SLOT = new byte[RECORD_SIZE];
+
+	/**
+	 * Highest score first, entries with the same value are ordered by their
+	 * sequence number, the one added first is placed higher:
+	 */
+	private static final Comparator<ScoreEntry> DESCENDING = new Comparator<ScoreEntry>() {
+
+		public int compare(ScoreEntry a, ScoreEntry b) {
+
+			int order = Long.compare(b.getValue(), a.getValue());
+
+			return order != 0 ? order : Long.compare(a.getSequence(), b.getSequence());
+		}
+	};
+
+	/**
+	 * Lowest time first, ties as above:
+	 */
+	private static final Comparator<ScoreEntry> ASCENDING = new Comparator<ScoreEntry>() {
+
+		public int compare(ScoreEntry a, ScoreEntry b) {
+
+			int order = Long.compare(a.getValue(), b.getValue());
+
+			return order != 0 ? order : Long.compare(a.getSequence(), b.getSequence());
+		}
+	};
+
+	private File file;
+	private boolean time;
+
+	private FileChannel channel;
+
+	/** The kept scores, best first */
+	private TreeSet<ScoreEntry> index;
+
+	/** Records in the file, kept or not */
+	private long recordCount;
+
+	private long nextSequence;
+
+	/** Every entry before this one was written by the last compaction */
+	private long compactedSequence;
+
+	/** Entries waiting for the writer thread */
+	private BlockingQueue<ScoreEntry> queue = new ArrayBlockingQueue<ScoreEntry>(WRITE_QUEUE_SIZE);
+
+	/** true once the store is closed, if its file couldn't be opened or written */
+	private boolean closed;
+
+	/** Threads waiting for room in the queue */
+	private int waiters;
+
+	/** true once the writer thread has stopped */
+	private boolean writerDone;
+
+	/**
+	 * Writer thread:
+	 */
+	private Thread writer = new Thread("Highscore writer") {
+
+		public void run() {
+
+			write();
+		}
+	};
+
+	/**
+	 * Closes the store when the program exits:
+	 */
+	private Thread shutdownHook = new Thread() {
+
+		public void run() {
+
+			close();
+		}
+	};
+
+	/** The mapped board, null if the file couldn't be opened */
+	private volatile MappedByteBuffer board;
+
+	/** Counts the changes of the board, odd while it's being written */
+	private volatile long boardSequence;
+
+}
@@ -0,0 +1,104 @@
+/*
+ * File: HudLabel.java
+ * ---------------------
+ * A label of the head-up display: the timer or the score board. The label
+ * keeps the value it shows and writes its text into a buffer of its own, so
+ * asking it to show the same value again costs nothing and a new text is only
+ * made when a shown digit actually changes.
+ *
+ * A label is used either for numbers (zero padded to the length of the label)
+ * or for times (hh-mm-ss, see HighscoreList), not both.
+ */
+
+import java.util.Arrays;
+
+import acm.graphics.GLabel;
+
+public class HudLabel extends GLabel {
+
+	/**
+	 * Constructor:
+	 *
+	 * Creates a label showing zeroes.
+	 *
+	 * @param length : Amount of characters of the label
+	 */
+	public HudLabel(int length) {
+
+		super("");
+
+		buffer = new char[length];
+
+		Arrays.fill(buffer, '0');
+
+		setLabel(new String(buffer));
+	}
+
+	/**
+	 * method: showsNumber();
+	 *
+	 * @param value : A number
+	 * @return true if the label already shows the number
+	 */
+	public boolean showsNumber(long value) {
+
+		return value == shown;
+	}
+
+	/**
+	 * method: setNumber();
+	 *
+	 * Shows a number padded with zeroes, only its lowest digits if it's too long.
+	 *
+	 * @param value : A number that isn't negative
+	 */
+	public void setNumber(long value) {
+
+		if (showsNumber(value)) return;
+
+		shown = value;
+
+		for (int i = buffer.length - 1; i >= 0; i--) {
+
+			buffer[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+
+		setLabel(new String(buffer));
+	}
+
+	/**
+	 * method: showsTime();
+	 *
+	 * @param timeInMillis : A time in milliseconds
+	 * @return true if the label already shows the time, to the second
+	 */
+	public boolean showsTime(long timeInMillis) {
+
+		return timeInMillis / 1000 == shown;
+	}
+
+	/**
+	 * method: setTime();
+	 *
+	 * Shows a time. The label has to be HighscoreList.TIME_LENGTH characters long.
+	 *
+	 * @param timeInMillis : A time in milliseconds
+	 */
+	public void setTime(long timeInMillis) {
+
+		if (showsTime(timeInMillis)) return;
+
+		shown = timeInMillis / 1000;
+
+		HighscoreList.formatTime(timeInMillis, buffer, 0);
+
+		setLabel(new String(buffer));
+	}
+
+	private char[] buffer;
+
+	/** The number or the second shown, -1 until one is set */
+	private long shown = -1;
+
+}
@@ -0,0 +1,145 @@
+/*
+ * File: MenuState.java
+ * ---------------------
+ * This class holds the menu page breakout is currently on. The page is changed
+ * by the mouse and key listeners, the game thread sleeps until that happens
+ * instead of checking the page over and over.
+ */
+
+public class MenuState implements BreakoutConstants {
+
+	/**
+	 * Constructor:
+	 *
+	 * @param page : The page the menu starts on
+	 */
+	public MenuState(MenuPages page) {
+
+		this.page = page;
+
+	}
+
+	/**
+	 * method: getPage();
+	 *
+	 * @return the current menu page
+	 */
+	public synchronized MenuPages getPage() {
+
+		return page;
+
+	}
+
+	/**
+	 * method: setPage();
+	 *
+	 * Changes the menu page and wakes up everything waiting for a change.
+	 *
+	 * @param page : The new page
+	 */
+	public synchronized void setPage(MenuPages page) {
+
+		this.page = page;
+
+		refresh();
+
+	}
+
+	/**
+	 * method: refresh();
+	 *
+	 * Wakes up everything waiting for a change without changing the page, used
+	 * when the contents of the current page have changed.
+	 */
+	public synchronized void refresh() {
+
+		version++;
+
+		notifyAll();
+
+	}
+
+	/**
+	 * method: getVersion();
+	 *
+	 * Returns a number that changes with every change or refresh of the page. Read
+	 * it before looking at the page, then pass it to awaitChange().
+	 *
+	 * @return the version of the menu state
+	 */
+	public synchronized int getVersion() {
+
+		return version;
+
+	}
+
+	/**
+	 * method: awaitChange();
+	 *
+	 * Waits until the page has changed or was refreshed since the given version.
+	 *
+	 * @param version : The version that was seen last
+	 * @return the current page
+	 */
+	public synchronized MenuPages awaitChange(int version) {
+
+		while (this.version == version) {
+
+			if (!await()) break;
+
+		}
+
+		return page;
+
+	}
+
+	/**
+	 * method: awaitLeaving();
+	 *
+	 * Waits until the menu is no longer on the given page.
+	 *
+	 * @param page : The page that's being waited out
+	 * @return the current page
+	 */
+	public synchronized MenuPages awaitLeaving(MenuPages page) {
+
+		while (this.page == page) {
+
+			if (!await()) break;
+
+		}
+
+		return this.page;
+
+	}
+
+	/**
+	 * method: await();
+	 *
+	 * Waits for a notification.
+	 *
+	 * @return false if the thread was interrupted while waiting
+	 */
+	private boolean await() {
+
+		try {
+
+			wait();
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+			return false;
+
+		}
+
+		return true;
+
+	}
+
+	private MenuPages page;
+
+	private int version;
+
+}
@@ -7,11 +7,15 @@
 
 import acm.graphics.*;
 
-public class Paddle extends GCompound implements Runnable {
+public class Paddle extends GCompound implements Animation {
 
 	/** Distance between the paddle pieces */
 	private static final int PADDLE_SEP = 3;
 
+	/** Images of the paddle pieces */
+	private static final String TOP_IMAGE = "./images/paddle/paddle top.png";
+	private static final String BOTTOM_IMAGE = "./images/paddle/paddle bottom.png";
+
 	/** Parameters for the deflect and levitate animations */
 	private static final int DEFLECT_SPEED = 1;
 	private static final int NANIMATION_FRAMES_DEFLECT = 2;
@@ -36,28 +40,114 @@ public class Paddle extends GCompound implements Runnable {
 	}
 
 	/**
-	 * @see java.lang.Runnable#run()
+	 * method: addSprites();
+	 * 
+	 * Adds the sprites of the pieces of a paddle of the given size to the atlas.
+	 * 
+	 * @param atlas  : The atlas being built
+	 * @param width  : Width of the paddle
+	 * @param height : Height of the paddle
+	 */
+	public static void addSprites(SpriteAtlas atlas, int width, int height) {
+
+		atlas.add(TOP_IMAGE, width, height);
+		atlas.add(BOTTOM_IMAGE, width, height);
+
+	}
+
+	/**
+	 * @see Animation#start()
+	 * 
+	 * The levitation keeps its phase and deadline if the animation is restarted
+	 * (for example to play the deflect animation), so it isn't disturbed by the
+	 * ball bouncing off the paddle.
 	 */
-	public void run() {
+	public void start() {
+
+		long now = System.currentTimeMillis();
+
+		if (exit) {
+
+			levitateSpeed = LEVITATION_SPEED;
+			phase = false;
+			levitateDeadline = now;
+
+			paddleBottom.setLocation(0, PADDLE_SEP);
+
+		}
 
 		exit = false;
 
-		if (deflect) {
+	}
+
+	/**
+	 * @see Animation#step()
+	 * 
+	 * Both animations run on deadlines, each frame draws whatever is due and
+	 * sleeps until the next deadline. A deflect asked for by deflectBall() is
+	 * taken over here, so only the animation thread touches its state.
+	 */
+	public int step() {
+
+		if (exit) {
+
+			paddleBottom.setLocation(0, PADDLE_SEP);
+
+			return FINISHED;
+
+		}
+
+		long now = System.currentTimeMillis();
+
+		if (deflectRequested) {
+
+			deflectRequested = false;
+
+			deflect = true;
+			frame = 0;
+			deflectDeadline = now;
+
+		}
+
+		if (deflect && now >= deflectDeadline) deflectDeadline += deflectBounce();
 
-			deflectBounce();
+		if (now >= levitateDeadline) {
+
+			levitate();
+
+			/* If the frame is late, the next one is counted from now. */
+			levitateDeadline = Math.max(levitateDeadline + ANIMATION_FRAME_DELAY_LEVITATE, now + 1);
 
 		}
 
-		levitate();
+		long nextDeadline = deflect ? Math.min(deflectDeadline, levitateDeadline) : levitateDeadline;
+
+		return (int) Math.max(nextDeadline - now, 0);
+
+	}
+
+	/**
+	 * method: reset();
+	 * 
+	 * Puts the pieces back in place, so the paddle can be reused for a new game.
+	 * The animation has to be stopped.
+	 */
+	public void reset() {
 
 		exit = true;
+		deflectRequested = false;
+		deflect = false;
+		frame = 0;
+
+		paddleTop.setLocation(0, 0);
+		paddleBottom.setLocation(0, PADDLE_SEP);
 
 	}
 
 	/**
 	 * method: exit();
 	 * 
-	 * Tells the thread to finish executing.
+	 * Tells the animation to finish.
 	 */
 	public void exit() {
 
@@ -72,15 +162,11 @@ public class Paddle extends GCompound implements Runnable {
 	 */
 	private void makePaddle() {
 
-		paddleTop = new GImage("./images/paddle/paddle top.png");
-
-		paddleTop.setSize(width, height);
+		paddleTop = new GImage(SpriteCache.get(TOP_IMAGE, width, height));
 
 		add(paddleTop);
 
-		paddleBottom = new GImage("./images/paddle/paddle bottom.png");
-
-		paddleBottom.setSize(width, height);
+		paddleBottom = new GImage(SpriteCache.get(BOTTOM_IMAGE, width, height));
 
 		add(paddleBottom, 0, PADDLE_SEP);
 
@@ -89,86 +175,71 @@ public class Paddle extends GCompound implements Runnable {
 	/**
 	 * method: deflectBall();
 	 * 
-	 * If called the next thread will execute the deflect animation.
+	 * Plays the deflect animation, the levitation carries on alongside it.
 	 */
 	public void deflectBall() {
 
-		deflect = true;
+		requestDeflect();
+
+		Animator.play(this);
 
 	}
 
 	/**
-	 * method: deflectBounce();
+	 * method: requestDeflect();
 	 * 
-	 * Animation for deflecting the ball.
+	 * Asks for the deflect animation to start with the next frame, without
+	 * scheduling one.
 	 */
-	private void deflectBounce() {
-
-		int deflectSpeed = DEFLECT_SPEED;
-
-		amplitude(deflectSpeed);
+	void requestDeflect() {
 
-		deflectSpeed *= -1;
-
-		amplitude(deflectSpeed);
-		
-		deflect = false;
+		deflectRequested = true;
 
 	}
 
 	/**
-	 * method: amplitude();
+	 * method: deflectBounce();
 	 * 
-	 * Animates an amplitude of the deflect animation.
+	 * Animation for deflecting the ball, the top piece moves down and back up.
 	 * 
-	 * @param speed : The speed of movement during the animation
+	 * @return delay before the next frame
 	 */
-	private void amplitude(double speed) {
+	private int deflectBounce() {
 
-		for (int i = 0; i < NANIMATION_FRAMES_DEFLECT; i++) {
+		/* A deflect that was interrupted by a new one starts from the top. */
+		if (frame == 0) paddleTop.setLocation(0, 0);
 
-			paddleTop.move(0, speed);
+		int deflectSpeed = frame < NANIMATION_FRAMES_DEFLECT ? DEFLECT_SPEED : -DEFLECT_SPEED;
 
-			pause(ANIMATION_FRAME_DELAY_DEFLECT);
+		paddleTop.move(0, deflectSpeed);
 
-		}
+		frame++;
+
+		if (frame == 2 * NANIMATION_FRAMES_DEFLECT) deflect = false;
+
+		return ANIMATION_FRAME_DELAY_DEFLECT;
 
 	}
 
 	/**
 	 * method: levitate();
 	 * 
-	 * executes the levitation animation on the lower paddle piece.
+	 * Draws the next frame of the levitation animation on the lower paddle piece.
 	 */
 	private void levitate() {
 
-		double levitateSpeed = LEVITATION_SPEED;
-		boolean phase = false;
-
-		while (!exit) {
-
-			if (System.currentTimeMillis() - timer > ANIMATION_FRAME_DELAY_LEVITATE) {
-
-				if (!phase) {
+		if (!phase) {
 
-					phase = true;
+			phase = true;
 
-				} else {
+		} else {
 
-					levitateSpeed *= -1;
-					phase = false;
-
-				}
-
-				paddleBottom.move(0, levitateSpeed);
-
-				timer = System.currentTimeMillis();
-
-			}
+			levitateSpeed *= -1;
+			phase = false;
 
 		}
 
-		paddleBottom.setLocation(0, PADDLE_SEP);
+		paddleBottom.move(0, levitateSpeed);
 
 	}
 
@@ -177,9 +248,18 @@ public class Paddle extends GCompound implements Runnable {
 
 	private int width;
 	private int height;
-	private long timer;
+
+	private int frame;
+	private double levitateSpeed;
+	private boolean phase;
+
+	private long levitateDeadline;
+	private long deflectDeadline;
+
+	/** Set by deflectBall(), taken over by the animation thread in step() */
+	private volatile boolean deflectRequested;
 
 	private boolean deflect;
-	private volatile boolean exit;
+	private volatile boolean exit = true;
 
 }
\ No newline at end of file
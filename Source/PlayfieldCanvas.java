@@ -0,0 +1,417 @@
+/*
+ * File: PlayfieldCanvas.java
+ * ---------------------
+ * This class is the canvas breakout is drawn on. A normal GCanvas redraws the
+ * background and every object whenever anything changes, this one only redraws
+ * the regions that changed. Objects are drawn into a back buffer over a cached
+ * copy of the background, and only the changed parts of the buffer are copied
+ * to the screen.
+ *
+ * Changes made between beginChange() and endChange() only redraw the region
+ * the object covered before and after the change. Any other change (adding or
+ * removing objects, labels that are set outside of a change) redraws the whole
+ * canvas, just like a GCanvas would.
+ */
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import acm.graphics.*;
+
+public class PlayfieldCanvas extends GCanvas {
+
+	private static final long serialVersionUID = 1L;
+
+	/** More dirty regions than this in one frame and the whole canvas is redrawn */
+	private static final int MAX_DIRTY_REGIONS = 32;
+
+	/** Pixels added around a dirty region, for anti-aliased edges */
+	private static final int DIRTY_MARGIN = 1;
+
+	/**
+	 * method: of();
+	 *
+	 * Finds the playfield an object is drawn on.
+	 *
+	 * @param object : The object
+	 * @return the playfield or null if the object isn't on one
+	 */
+	public static PlayfieldCanvas of(GObject object) {
+
+		GContainer parent = object.getParent();
+
+		while (parent instanceof GObject) parent = ((GObject) parent).getParent();
+
+		return parent instanceof PlayfieldCanvas ? (PlayfieldCanvas) parent : null;
+
+	}
+
+	/**
+	 * method: setBackdrop();
+	 *
+	 * Sets the object that's drawn behind everything else. It's drawn into a
+	 * buffer once and copied from there, so it must not change afterwards.
+	 *
+	 * @param backdrop : The background object, it should also be added to the
+	 *                 canvas so it receives mouse events
+	 */
+	public synchronized void setBackdrop(GObject backdrop) {
+
+		this.backdrop = backdrop;
+
+		backdropImage = null;
+
+		invalidateAll();
+
+	}
+
+	/**
+	 * method: beginChange();
+	 *
+	 * Starts a change of an object. Until endChange() is called, changes made by
+	 * this thread don't redraw the whole canvas.
+	 *
+	 * @param object : The object that's about to change
+	 * @return the region of the object before the change, to be passed to
+	 *         endChange()
+	 */
+	public GRectangle beginChange(GObject object) {
+
+		changeDepth.get()[0]++;
+
+		return object.getBounds();
+
+	}
+
+	/**
+	 * method: endChange();
+	 *
+	 * Finishes a change of an object and redraws the region it covered before and
+	 * after the change.
+	 *
+	 * @param object : The object that has changed
+	 * @param before : The region returned by beginChange()
+	 */
+	public void endChange(GObject object, GRectangle before) {
+
+		changeDepth.get()[0]--;
+
+		invalidate(before);
+		invalidate(object.getBounds());
+
+	}
+
+	/**
+	 * method: invalidate();
+	 *
+	 * Redraws a region of the canvas.
+	 *
+	 * @param region : The region in canvas coordinates
+	 */
+	public void invalidate(GRectangle region) {
+
+		if (region == null || region.getWidth() <= 0 || region.getHeight() <= 0) return;
+
+		int left = (int) Math.floor(region.getX()) - DIRTY_MARGIN;
+		int top = (int) Math.floor(region.getY()) - DIRTY_MARGIN;
+		int right = (int) Math.ceil(region.getX() + region.getWidth()) + DIRTY_MARGIN;
+		int bottom = (int) Math.ceil(region.getY() + region.getHeight()) + DIRTY_MARGIN;
+
+		Rectangle dirty = new Rectangle(left, top, right - left, bottom - top);
+
+		synchronized (this) {
+
+			if (!redrawAll) addDirtyRegion(dirty);
+
+		}
+
+		repaint(dirty.x, dirty.y, dirty.width, dirty.height);
+
+	}
+
+	/**
+	 * method: invalidateAll();
+	 *
+	 * Redraws the whole canvas.
+	 */
+	public void invalidateAll() {
+
+		synchronized (this) {
+
+			redrawAll = true;
+			dirtyRegions.clear();
+
+		}
+
+		repaint();
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#add(acm.graphics.GObject)
+	 */
+	public void add(GObject object) {
+
+		super.add(object);
+
+		invalidateAll();
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#remove(acm.graphics.GObject)
+	 */
+	public void remove(GObject object) {
+
+		super.remove(object);
+
+		invalidateAll();
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#removeAll()
+	 */
+	public void removeAll() {
+
+		super.removeAll();
+
+		invalidateAll();
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#conditionalRepaint()
+	 */
+	protected void conditionalRepaint() {
+
+		if (!getAutoRepaintFlag() || changeDepth.get()[0] > 0) return;
+
+		invalidateAll();
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#update(java.awt.Graphics)
+	 */
+	public void update(Graphics g) {
+
+		paint(g);
+
+	}
+
+	/**
+	 * @see acm.graphics.GCanvas#paint(java.awt.Graphics)
+	 */
+	public void paint(Graphics g) {
+
+		Dimension size = getSize();
+
+		if (size.width <= 0 || size.height <= 0) return;
+
+		List<Rectangle> regions = new ArrayList<Rectangle>();
+		GObject backdrop;
+
+		synchronized (this) {
+
+			if (buffer == null || buffer.getWidth() != size.width || buffer.getHeight() != size.height) {
+
+				buffer = createBuffer(size.width, size.height);
+				backdropImage = null;
+				redrawAll = true;
+
+			}
+
+			if (redrawAll) regions.add(new Rectangle(0, 0, size.width, size.height));
+			else regions.addAll(dirtyRegions);
+
+			redrawAll = false;
+			dirtyRegions.clear();
+
+			backdrop = this.backdrop;
+
+			if (backdropImage == null) backdropImage = drawBackdrop(backdrop, size.width, size.height);
+
+		}
+
+		if (!regions.isEmpty()) {
+
+			collectElements();
+
+			Graphics2D bufferGraphics = buffer.createGraphics();
+
+			for (Rectangle region : regions) drawRegion(bufferGraphics, region, backdrop);
+
+			bufferGraphics.dispose();
+
+		}
+
+		g.drawImage(buffer, 0, 0, this);
+
+		paintComponents(g);
+
+	}
+
+	/**
+	 * method: addDirtyRegion();
+	 *
+	 * Adds a region to the dirty regions, merging it with a region it overlaps.
+	 *
+	 * @param region : The region
+	 */
+	private void addDirtyRegion(Rectangle region) {
+
+		for (Rectangle dirty : dirtyRegions) {
+
+			if (dirty.intersects(region)) {
+
+				dirty.add(region);
+				return;
+
+			}
+
+		}
+
+		if (dirtyRegions.size() < MAX_DIRTY_REGIONS) {
+
+			dirtyRegions.add(region);
+
+		} else {
+
+			redrawAll = true;
+			dirtyRegions.clear();
+
+		}
+
+	}
+
+	/**
+	 * method: collectElements();
+	 *
+	 * Copies the objects on the canvas into the elements list, so they can be
+	 * drawn several times while other threads add or remove objects.
+	 */
+	private void collectElements() {
+
+		elements.clear();
+
+		try {
+
+			for (int i = 0; i < getElementCount(); i++) elements.add(getElement(i));
+
+		} catch (IndexOutOfBoundsException e) {
+
+			/* An object was removed while copying, draw everything again next time. */
+			invalidateAll();
+
+		}
+
+	}
+
+	/**
+	 * method: drawRegion();
+	 *
+	 * Draws the backdrop and every object overlapping a region into the buffer.
+	 *
+	 * @param g        : Graphics of the buffer
+	 * @param region   : The region
+	 * @param backdrop : The backdrop object, which is skipped
+	 */
+	private void drawRegion(Graphics2D g, Rectangle region, GObject backdrop) {
+
+		g.setClip(region);
+
+		g.drawImage(backdropImage, 0, 0, null);
+
+		for (GObject element : elements) {
+
+			if (element == null || element == backdrop || !element.isVisible()) continue;
+
+			GRectangle bounds = element.getBounds();
+
+			if (bounds.getX() > region.getMaxX() || bounds.getY() > region.getMaxY()
+					|| bounds.getX() + bounds.getWidth() < region.getX()
+					|| bounds.getY() + bounds.getHeight() < region.getY()) continue;
+
+			g.setColor(element.getColor());
+			element.paint(g);
+
+		}
+
+	}
+
+	/**
+	 * method: drawBackdrop();
+	 *
+	 * Draws the background color and the backdrop into an image of the canvas
+	 * size.
+	 *
+	 * @return the image
+	 */
+	private BufferedImage drawBackdrop(GObject backdrop, int width, int height) {
+
+		BufferedImage image = createBuffer(width, height);
+
+		Graphics2D g = image.createGraphics();
+
+		g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+		g.fillRect(0, 0, width, height);
+
+		if (backdrop != null) {
+
+			g.setColor(backdrop.getColor());
+			backdrop.paint(g);
+
+		}
+
+		g.dispose();
+
+		return image;
+
+	}
+
+	/**
+	 * method: createBuffer();
+	 *
+	 * @return an image compatible with the screen, if there is one
+	 */
+	private BufferedImage createBuffer(int width, int height) {
+
+		GraphicsConfiguration configuration = getGraphicsConfiguration();
+
+		if (configuration == null) return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		return configuration.createCompatibleImage(width, height);
+
+	}
+
+	/** How many changes the current thread is making at the moment */
+	private ThreadLocal<int[]> changeDepth = new ThreadLocal<int[]>() {
+
+		protected int[] initialValue() {
+
+			return new int[1];
+
+		}
+
+	};
+
+	private List<Rectangle> dirtyRegions = new ArrayList<Rectangle>();
+	private boolean redrawAll = true;
+
+	private GObject backdrop;
+	private BufferedImage backdropImage;
+
+	private BufferedImage buffer;
+
+	/** Objects being drawn, only used while painting */
+	private List<GObject> elements = new ArrayList<GObject>();
+
+}
@@ -0,0 +1,327 @@
+/*
+ * File: ReplayPlayer.java
+ * ---------------------
+ * This program plays games recorded by ReplayRecorder again, without a window
+ * and as fast as it can. Each step gets the same paddle target it got while
+ * the game was played, so the game goes exactly as it went then, and the end
+ * of the replay is checked against the end of the recording. It's meant for
+ * looking into games that went wrong, and for measuring the simulation on the
+ * same games across versions.
+ *
+ * Usage: java ReplayPlayer [replay files], the newest replay if none is given
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+public class ReplayPlayer implements BreakoutConstants, SimulationListener {
+
+	/** Where Breakout writes its replays */
+	private static final File REPLAY_FOLDER = new File("./files/replays");
+
+	public static void main(String[] args) {
+
+		File[] files = new File[args.length];
+
+		for (int i = 0; i < args.length; i++) files[i] = new File(args[i]);
+
+		if (files.length == 0) files = newestReplay();
+
+		for (File file : files) {
+
+			ReplayPlayer player = new ReplayPlayer(file);
+
+			try {
+
+				player.play();
+
+			} catch (IOException e) {
+
+				e.printStackTrace();
+				System.out.println("Can't play " + file);
+
+				continue;
+			}
+
+			System.out.println(player);
+		}
+	}
+
+	/**
+	 * Constructor:
+	 *
+	 * @param file : The replay file
+	 */
+	public ReplayPlayer(File file) {
+
+		this.file = file;
+	}
+
+	/**
+	 * method: play();
+	 *
+	 * Plays the whole replay.
+	 */
+	public void play() throws IOException {
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+		try {
+
+			if (in.readInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay: " + file);
+
+			version = in.readUnsignedByte();
+
+			if (version < 1 || version > ReplayRecorder.VERSION) {
+
+				throw new IOException("Unknown replay version " + version);
+			}
+
+			int rate = in.readInt();
+
+			if (rate != SIMULATION_RATE) {
+
+				throw new IOException("Recorded at " + rate + " steps per second, not " + SIMULATION_RATE);
+			}
+
+			seed = in.readLong();
+			startTime = in.readLong();
+
+			simulation = new Simulation(seed, this);
+			simulation.newGame(seed);
+
+			long start = System.nanoTime();
+
+			try {
+
+				playCodes(in);
+
+			} catch (EOFException e) {
+
+				/* The game was cut short, it's played up to there. */
+			}
+
+			playTime = System.nanoTime() - start;
+
+		} finally {
+
+			in.close();
+		}
+	}
+
+	/**
+	 * method: matchesRecording();
+	 *
+	 * @return true if the replay came to the same end as the recorded game
+	 */
+	public boolean matchesRecording() {
+
+		GameState state = simulation.getState();
+
+		return ended && state.getSteps() == recordedSteps && state.getScore() == recordedScore
+				&& state.getLivesLeft() == recordedLivesLeft;
+	}
+
+	/**
+	 * method: playCodes();
+	 *
+	 * Reads the codes after the header and plays them, until the END code or the
+	 * end of the file.
+	 *
+	 * @param in : The replay, positioned after the header
+	 */
+	private void playCodes(DataInputStream in) throws IOException {
+
+		double target = 0;
+
+		while (true) {
+
+			byte code = in.readByte();
+
+			if (code >= -ReplayRecorder.MAX_DELTA && code <= ReplayRecorder.MAX_DELTA) {
+
+				target += code;
+
+				step(target);
+
+				continue;
+			}
+
+			switch (code) {
+
+			case ReplayRecorder.IDLE:
+
+				for (int i = in.readUnsignedByte(); i > 0; i--) step(target);
+				break;
+
+			case ReplayRecorder.TARGET:
+
+				target = in.readDouble();
+
+				step(target);
+				break;
+
+			case ReplayRecorder.SERVE:
+
+				/* Version 1 didn't record where the paddle was served from. */
+				if (version > 1) {
+
+					target = in.readDouble();
+
+					simulation.movePaddleWhileServing(target);
+				}
+
+				simulation.serve();
+				break;
+
+			case ReplayRecorder.PAUSE:
+
+				pauses++;
+				break;
+
+			case ReplayRecorder.RESUME:
+				break;
+
+			case ReplayRecorder.END:
+
+				recordedSteps = in.readLong();
+				recordedScore = in.readInt();
+				recordedLivesLeft = in.readInt();
+
+				ended = true;
+				return;
+
+			default:
+				throw new IOException("Damaged replay, unknown code " + code);
+			}
+		}
+	}
+
+	/**
+	 * method: step();
+	 *
+	 * Plays one step of the game.
+	 *
+	 * @param target : The paddle target of the step
+	 */
+	private void step(double target) {
+
+		simulation.setPaddleTarget(target);
+		simulation.step();
+	}
+
+	/**
+	 * method: newestReplay();
+	 *
+	 * @return the newest replay of the replay folder, or no file if there's none
+	 */
+	private static File[] newestReplay() {
+
+		File newest = null;
+		File[] files = REPLAY_FOLDER.listFiles();
+
+		if (files != null) {
+
+			for (File file : files) {
+
+				if (!file.getName().endsWith(ReplayRecorder.EXTENSION)) continue;
+
+				if (newest == null || file.lastModified() > newest.lastModified()) newest = file;
+			}
+		}
+
+		if (newest == null) System.out.println("No replays in " + REPLAY_FOLDER);
+
+		return newest != null ? new File[] { newest } : new File[0];
+	}
+
+	/**
+	 * @see SimulationListener#paddleHit()
+	 */
+	public void paddleHit() {
+
+		paddleHits++;
+	}
+
+	/**
+	 * @see SimulationListener#brickDestroyed(int)
+	 */
+	public void brickDestroyed(int cell) {
+
+		bricksDestroyed++;
+	}
+
+	/**
+	 * @see SimulationListener#runawayBrickChosen(int)
+	 */
+	public void runawayBrickChosen(int cell) {
+
+	}
+
+	/**
+	 * @see SimulationListener#runawayBrickHit(int)
+	 */
+	public void runawayBrickHit(int angle) {
+
+	}
+
+	/**
+	 * @see SimulationListener#lifeLost()
+	 */
+	public void lifeLost() {
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+
+		if (simulation == null) return file + ": not played";
+
+		GameState state = simulation.getState();
+
+		String result = state.isWon() ? "won" : state.isOver() ? "lost" : "not over";
+
+		String check = !ended ? "recording cut short"
+				: matchesRecording() ? "same as recorded"
+						: "DIFFERENT from the recording (" + recordedSteps + " steps, score " + recordedScore + ", "
+								+ recordedLivesLeft + " lives left)";
+
+		double seconds = (double) state.getSteps() / SIMULATION_RATE;
+		double playSeconds = playTime / 1e9;
+
+		return String.format(
+				"%s: seed %d, played %tF %<tT%n  %s after %d steps (%.0f s), score %d, %d lives left, "
+						+ "%d paddle hits, %d bricks, %d pauses: %s%n  replayed in %.1f ms, %.0f times real time",
+				file, seed, startTime, result, state.getSteps(), seconds, state.getScore(), state.getLivesLeft(),
+				paddleHits, bricksDestroyed, pauses, check, playSeconds * 1000,
+				playSeconds > 0 ? seconds / playSeconds : 0.0);
+	}
+
+	private File file;
+
+	private Simulation simulation;
+
+	private int version;
+	private long seed;
+	private long startTime;
+
+	/** Nanoseconds the replay took to play */
+	private long playTime;
+
+	private int paddleHits;
+	private int bricksDestroyed;
+	private int pauses;
+
+	/** The end written by the recorder, if the replay has one */
+	private boolean ended;
+	private long recordedSteps;
+	private int recordedScore;
+	private int recordedLivesLeft;
+
+}
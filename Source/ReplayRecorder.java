@@ -0,0 +1,368 @@
+/*
+ * File: ReplayRecorder.java
+ * ---------------------
+ * This class records games of breakout, so they can be played again without a
+ * window by ReplayPlayer. The simulation only depends on its seed and on where
+ * the paddle is told to go before each step, so that is all a replay holds,
+ * together with the serves and pauses, which happen between steps, and where
+ * the paddle was when the ball was served.
+ *
+ * Every game is written to a file of its own in the replay folder while it's
+ * played, through a buffer that's flushed whenever the game stops for a while
+ * (a serve, a pause, the end), so a game that was cut short can be replayed up
+ * to there. Only the newest MAX_REPLAYS files are kept.
+ *
+ * File layout: a header (MAGIC, VERSION, SIMULATION_RATE, the seed and when
+ * the game started) followed by one byte codes:
+ *
+ * - a number between -MAX_DELTA and MAX_DELTA: one step, the paddle target
+ * moved by that many pixels since the previous step
+ * - IDLE, count (unsigned byte): count steps in which the target didn't move
+ * - TARGET, target (double): one step with a target that isn't a small whole
+ * move away from the previous one
+ * - SERVE, target (double): the ball was served with the paddle at the target
+ * - PAUSE, RESUME: the game paused or went on
+ * - END, steps (long), score (int), lives left (int): the game is over, so the
+ * player can check it came to the same result
+ *
+ * Recording never stops the game: if the file can't be written, the error is
+ * printed and the rest of the game isn't recorded.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ReplayRecorder implements BreakoutConstants {
+
+	/** File format */
+	static final int MAGIC = 0x42524550;
+	static final int VERSION = 2;
+
+	/** Ending of the replay files */
+	static final String EXTENSION = ".replay";
+
+	/** Largest paddle move stored in one byte */
+	static final int MAX_DELTA = 119;
+
+	/** Codes that aren't moves */
+	static final byte IDLE = 120;
+	static final byte TARGET = 121;
+	static final byte SERVE = 122;
+	static final byte PAUSE = 123;
+	static final byte RESUME = 124;
+	static final byte END = 125;
+
+	/** Most steps in one IDLE code */
+	private static final int MAX_IDLE = 255;
+
+	/**
+	 * Constructor:
+	 *
+	 * @param folder : The folder the replays are written to, created if needed
+	 */
+	public ReplayRecorder(File folder) {
+
+		this.folder = folder;
+	}
+
+	/**
+	 * method: start();
+	 *
+	 * Starts recording a new game, in a file named after the time it started.
+	 * The oldest replays are deleted, so with this one there are MAX_REPLAYS.
+	 *
+	 * @param seed : The seed the game was started with
+	 */
+	public void start(long seed) {
+
+		finish();
+
+		long startTime = System.currentTimeMillis();
+
+		String name = new SimpleDateFormat("yyyy-MM-dd HH-mm-ss").format(new Date(startTime));
+
+		try {
+
+			if (!folder.isDirectory() && !folder.mkdirs()) throw new IOException("Can't create " + folder);
+
+			deleteOldReplays(MAX_REPLAYS - 1);
+
+			file = new File(folder, name + EXTENSION);
+
+			for (int i = 2; file.exists(); i++) file = new File(folder, name + " (" + i + ")" + EXTENSION);
+
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeInt(SIMULATION_RATE);
+			out.writeLong(seed);
+			out.writeLong(startTime);
+
+		} catch (IOException e) {
+
+			failed(e);
+		}
+
+		lastTarget = 0;
+		idleSteps = 0;
+	}
+
+	/**
+	 * method: step();
+	 *
+	 * Records one step of the game. Called right before the step.
+	 *
+	 * @param target : The paddle target the simulation is given for the step
+	 */
+	public void step(double target) {
+
+		if (out == null) return;
+
+		try {
+
+			double delta = target - lastTarget;
+
+			if (delta == 0) {
+
+				if (++idleSteps == MAX_IDLE) writeIdleSteps();
+
+				return;
+			}
+
+			writeIdleSteps();
+
+			int move = (int) delta;
+
+			if (move >= -MAX_DELTA && move <= MAX_DELTA && lastTarget + move == target) {
+
+				out.writeByte(move);
+
+			} else {
+
+				out.writeByte(TARGET);
+				out.writeDouble(target);
+			}
+
+			lastTarget = target;
+
+		} catch (IOException e) {
+
+			failed(e);
+		}
+	}
+
+	/**
+	 * method: serve();
+	 *
+	 * Records that the ball was served. Called right before the serve.
+	 *
+	 * @param target : The paddle target the ball is served with
+	 */
+	public void serve(double target) {
+
+		if (out == null) return;
+
+		try {
+
+			writeIdleSteps();
+
+			out.writeByte(SERVE);
+			out.writeDouble(target);
+			out.flush();
+
+		} catch (IOException e) {
+
+			failed(e);
+		}
+
+		lastTarget = target;
+	}
+
+	/**
+	 * method: pause();
+	 *
+	 * Records that the game was paused.
+	 */
+	public void pause() {
+
+		writeEvent(PAUSE);
+	}
+
+	/**
+	 * method: resume();
+	 *
+	 * Records that the game went on after a pause.
+	 */
+	public void resume() {
+
+		writeEvent(RESUME);
+	}
+
+	/**
+	 * method: end();
+	 *
+	 * Records how the game ended and closes the file.
+	 *
+	 * @param state : The state of the game after its last step
+	 */
+	public void end(GameState state) {
+
+		if (out == null) return;
+
+		try {
+
+			writeIdleSteps();
+
+			out.writeByte(END);
+			out.writeLong(state.getSteps());
+			out.writeInt(state.getScore());
+			out.writeInt(state.getLivesLeft());
+
+		} catch (IOException e) {
+
+			failed(e);
+		}
+
+		finish();
+	}
+
+	/**
+	 * method: getFile();
+	 *
+	 * @return the file of the game being recorded or recorded last, null if none
+	 */
+	public File getFile() {
+
+		return file;
+	}
+
+	/**
+	 * method: writeEvent();
+	 *
+	 * Writes one of the codes that happen between steps and flushes the file.
+	 *
+	 * @param code : The code
+	 */
+	private void writeEvent(byte code) {
+
+		if (out == null) return;
+
+		try {
+
+			writeIdleSteps();
+
+			out.writeByte(code);
+			out.flush();
+
+		} catch (IOException e) {
+
+			failed(e);
+		}
+	}
+
+	/**
+	 * method: writeIdleSteps();
+	 *
+	 * Writes the steps in which the paddle target didn't move, if there are any.
+	 */
+	private void writeIdleSteps() throws IOException {
+
+		if (idleSteps == 1) {
+
+			out.writeByte(0);
+
+		} else if (idleSteps > 1) {
+
+			out.writeByte(IDLE);
+			out.writeByte(idleSteps);
+		}
+
+		idleSteps = 0;
+	}
+
+	/**
+	 * method: finish();
+	 *
+	 * Closes the file of the game being recorded, if there is one.
+	 */
+	private void finish() {
+
+		if (out == null) return;
+
+		try {
+
+			out.close();
+
+		} catch (IOException e) {
+
+			e.printStackTrace();
+		}
+
+		out = null;
+	}
+
+	/**
+	 * method: failed();
+	 *
+	 * Stops recording the game after an error.
+	 *
+	 * @param e : The error
+	 */
+	private void failed(IOException e) {
+
+		e.printStackTrace();
+		System.out.println("The game isn't recorded any further: " + file);
+
+		finish();
+	}
+
+	/**
+	 * method: deleteOldReplays();
+	 *
+	 * Deletes the oldest replays of the folder until the given amount is left.
+	 *
+	 * @param keep : Amount of replays to keep
+	 */
+	private void deleteOldReplays(int keep) {
+
+		File[] files = folder.listFiles();
+
+		if (files == null) return;
+
+		List<File> replays = new ArrayList<File>();
+
+		for (File replay : files) {
+
+			if (replay.isFile() && replay.getName().endsWith(EXTENSION)) replays.add(replay);
+		}
+
+		/* The names start with the time the games started. */
+		Collections.sort(replays);
+
+		for (int i = 0; i < replays.size() - keep; i++) {
+
+			if (!replays.get(i).delete()) System.out.println("Can't delete old replay " + replays.get(i));
+		}
+	}
+
+	private File folder;
+	private File file;
+
+	private DataOutputStream out;
+
+	/** Paddle target of the previous step */
+	private double lastTarget;
+
+	/** Steps without a move that weren't written yet */
+	private int idleSteps;
+
+}
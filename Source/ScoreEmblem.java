@@ -9,7 +9,7 @@ import java.awt.Color;
 import acm.graphics.*;
 import acm.util.RandomGenerator;
 
-public class ScoreEmblem extends GCompound implements Runnable {
+public class ScoreEmblem extends GCompound implements Animation {
 
 	/** Ratio of the "radius" of the inner polygon to the outer */
 	private static final double POLYGON_RATIO = 0.65;
@@ -34,8 +34,6 @@ public class ScoreEmblem extends GCompound implements Runnable {
 		this.radius = width / 2;
 		this.sides = sides;
 
-		angleStep = 2 * Math.PI / sides;
-
 		outer = createPoly(radius, primaryColor);
 		inner = createPoly(radius * POLYGON_RATIO, secondaryColor);
 
@@ -44,15 +42,32 @@ public class ScoreEmblem extends GCompound implements Runnable {
 	}
 
 	/**
-	 * @see java.lang.Runnable#run()
+	 * @see Animation#start()
 	 */
-	public void run() {
+	public void start() {
 
 		exit = false;
 
 		flip();
 
-		exit = true;
+	}
+
+	/**
+	 * @see Animation#step()
+	 */
+	public int step() {
+
+		if (stage == 2 * FLIP_STAGES) {
+
+			exit = true;
+
+			return FINISHED;
+
+		}
+
+		flipStage();
+
+		return PAUSE_TIME;
 
 	}
 
@@ -104,12 +119,34 @@ public class ScoreEmblem extends GCompound implements Runnable {
 
 	}
 
+	/**
+	 * method: reset();
+	 * 
+	 * Undoes the part of the flip that was drawn, so the emblem can be reused for
+	 * a new game. The animation has to be stopped.
+	 * 
+	 * @param color1 : Color of the outer polygon
+	 * @param color2 : Color of the inner polygon
+	 */
+	public void reset(Color color1, Color color2) {
+
+		int shrunk = stage <= FLIP_STAGES ? stage : 2 * FLIP_STAGES - stage;
+
+		if (shrunk > 0) scale(Math.pow(flipStepSizeX, -shrunk), Math.pow(flipStepSizeY, -shrunk));
+
+		stage = 2 * FLIP_STAGES;
+		exit = true;
+
+		setColor(color1, color2);
+
+	}
+
 	/**
 	 * method: getThreadState();
 	 * 
-	 * Used to see if a thread is running on this object.
+	 * Used to see if an animation is playing on this object.
 	 * 
-	 * @return boolean value : true - > thread running
+	 * @return boolean value : true - > no animation playing
 	 */
 	public boolean getThreadState() {
 
@@ -130,16 +167,11 @@ public class ScoreEmblem extends GCompound implements Runnable {
 
 		GPolygon poly = new GPolygon();
 
-		double x = 0, y = 0, angle = -Math.PI / 2;
+		double[] vertices = UnitCircle.polygon(sides);
 
 		for (int i = 0; i < sides; i++) {
 
-			x = radius + polyRadius * Math.cos(angle);
-			y = radius + polyRadius * Math.sin(angle);
-
-			poly.addVertex(x, y);
-
-			angle += angleStep;
+			poly.addVertex(radius + polyRadius * vertices[2 * i], radius + polyRadius * vertices[2 * i + 1]);
 
 		}
 
@@ -156,7 +188,7 @@ public class ScoreEmblem extends GCompound implements Runnable {
 	/**
 	 * method: flip();
 	 * 
-	 * Flips the emblem in a random direction.
+	 * Prepares to flip the emblem in a random direction.
 	 */
 	private void flip() {
 
@@ -164,43 +196,37 @@ public class ScoreEmblem extends GCompound implements Runnable {
 
 		if (flipDirection) {
 
-			flipInDirection(FLIP_STEP_SIZE, 1);
+			flipStepSizeX = FLIP_STEP_SIZE;
+			flipStepSizeY = 1;
 
 		} else {
 
-			flipInDirection(1, FLIP_STEP_SIZE);
+			flipStepSizeX = 1;
+			flipStepSizeY = FLIP_STEP_SIZE;
 
 		}
 
-	}
-
-	private void flipInDirection(double flipStepSizeX, double flipStepSizeY) {
-
-		double reverseX = 1 / flipStepSizeX;
-		double reverseY = 1 / flipStepSizeY;
-
-		double x = getX() + radius;
-		double y = getY() + radius;
+		centerX = getX() + radius;
+		centerY = getY() + radius;
 
-		for (int i = 0; i < FLIP_STAGES; i++) {
+		stage = 0;
 
-			scale(flipStepSizeX, flipStepSizeY);
-
-			setLocation(x - getWidth() / 2, y - getHeight() / 2);
-
-			pause(PAUSE_TIME);
-
-		}
-
-		for (int i = 0; i < FLIP_STAGES; i++) {
+	}
 
-			scale(reverseX, reverseY);
+	/**
+	 * method: flipStage();
+	 * 
+	 * Draws the next stage of the flip. The emblem shrinks for FLIP_STAGES stages
+	 * and grows back for as many.
+	 */
+	private void flipStage() {
 
-			setLocation(x - getWidth() / 2, y - getHeight() / 2);
+		if (stage < FLIP_STAGES) scale(flipStepSizeX, flipStepSizeY);
+		else scale(1 / flipStepSizeX, 1 / flipStepSizeY);
 
-			pause(PAUSE_TIME);
+		setLocation(centerX - getWidth() / 2, centerY - getHeight() / 2);
 
-		}
+		stage++;
 
 	}
 
@@ -208,7 +234,12 @@ public class ScoreEmblem extends GCompound implements Runnable {
 
 	private int sides;
 	private double radius;
-	private double angleStep;
+
+	private int stage;
+	private double flipStepSizeX;
+	private double flipStepSizeY;
+	private double centerX;
+	private double centerY;
 
 	private GPolygon outer;
 	private GPolygon inner;
@@ -0,0 +1,174 @@
+/*
+ * File: ScoreEntry.java
+ * ---------------------
+ * One score of a highscore list: the user's alias, the score or the time in
+ * milliseconds, when it was set and which of the two lists it belongs to (its
+ * mode). Entries are ranked by comparing their values as longs, the text shown
+ * on the score board is only made the first time it's needed.
+ *
+ * An entry is stored as SIZE bytes: value (long), sequence (long), timestamp
+ * (long), mode (byte, 1 for times), name length (short), the name (NAME_LENGTH
+ * chars) and a CRC32 of everything before it.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+public final class ScoreEntry {
+
+	/** Longest name that can be stored */
+	public static final int NAME_LENGTH = 16;
+
+	/** Size of a stored entry in bytes */
+	public static final int SIZE = 8 + 8 + 8 + 1 + 2 + 2 * NAME_LENGTH + 4;
+
+	/**
+	 * Constructor:
+	 *
+	 * @param name      : The user's chosen alias, cut to NAME_LENGTH characters
+	 * @param value     : The score or the time in milliseconds
+	 * @param timestamp : When the score was set in milliseconds since the epoch,
+	 *                  0 if unknown
+	 * @param time      : true if value is a time
+	 * @param sequence  : Order in which the entries of a list were added, breaks
+	 *                  ties between equal values
+	 */
+	public ScoreEntry(String name, long value, long timestamp, boolean time, long sequence) {
+
+		this.name = name.length() > NAME_LENGTH ? name.substring(0, NAME_LENGTH) : name;
+		this.value = value;
+		this.timestamp = timestamp;
+		this.time = time;
+		this.sequence = sequence;
+	}
+
+	public String getName() {
+
+		return name;
+	}
+
+	public long getValue() {
+
+		return value;
+	}
+
+	public long getTimestamp() {
+
+		return timestamp;
+	}
+
+	public boolean isTime() {
+
+		return time;
+	}
+
+	public long getSequence() {
+
+		return sequence;
+	}
+
+	/**
+	 * method: getDisplayString();
+	 *
+	 * @return the entry as it's shown on the score board, without its rank
+	 */
+	public String getDisplayString() {
+
+		String display = displayString;
+
+		if (display == null) {
+
+			display = name + " - " + (time ? HighscoreList.formatTime(value) : "" + value);
+
+			displayString = display;
+		}
+
+		return display;
+	}
+
+	/**
+	 * method: encode();
+	 *
+	 * Writes the entry to a buffer and moves its position past the entry.
+	 *
+	 * @param out : The buffer, with at least SIZE bytes remaining
+	 */
+	public void encode(ByteBuffer out) {
+
+		int start = out.position();
+
+		out.putLong(value);
+		out.putLong(sequence);
+		out.putLong(timestamp);
+		out.put((byte) (time ? 1 : 0));
+		out.putShort((short) name.length());
+
+		for (int i = 0; i < NAME_LENGTH; i++) out.putChar(i < name.length() ? name.charAt(i) : 0);
+
+		out.putInt(checksum(out, start, SIZE - 4));
+	}
+
+	/**
+	 * method: decode();
+	 *
+	 * Reads an entry from a buffer and moves its position past the entry.
+	 *
+	 * @param in : The buffer, with at least SIZE bytes remaining
+	 * @return the entry or null if the stored entry is damaged or empty
+	 */
+	public static ScoreEntry decode(ByteBuffer in) {
+
+		int start = in.position();
+
+		if (in.getInt(start + SIZE - 4) != checksum(in, start, SIZE - 4)) return null;
+
+		long value = in.getLong();
+		long sequence = in.getLong();
+		long timestamp = in.getLong();
+		boolean time = in.get() != 0;
+		int length = in.getShort();
+
+		if (length < 0 || length > NAME_LENGTH) return null;
+
+		char[] name = new char[length];
+
+		for (int i = 0; i < length; i++) name[i] = in.getChar();
+
+		in.position(start + SIZE);
+
+		return new ScoreEntry(new String(name), value, timestamp, time, sequence);
+	}
+
+	/**
+	 * method: checksum();
+	 *
+	 * @param buffer : The buffer
+	 * @param start  : Index of the first byte
+	 * @param length : Amount of bytes
+	 * @return the CRC32 of the bytes
+	 */
+	static int checksum(ByteBuffer buffer, int start, int length) {
+
+		CRC32 crc = new CRC32();
+
+		/* A view of the bytes, the position of the buffer itself is left alone. */
+		ByteBuffer bytes = buffer.duplicate();
+
+		bytes.limit(start + length);
+		bytes.position(start);
+
+		crc.update(bytes);
+
+		return (int) crc.getValue();
+	}
+
+	private final String name;
+	private final long value;
+	private final long timestamp;
+	private final boolean time;
+	private final long sequence;
+
+	/** Made by getDisplayString() */
+	private String displayString;
+
+}
@@ -0,0 +1,151 @@
+/*
+ * File: ScoreFileValidator.java
+ * ---------------------
+ * This class checks an old text highscore file one line at a time, so a file
+ * of any length is read with the same small amount of memory. Every valid line
+ * is handed to a listener, every line that can't be read is copied to a
+ * quarantine file instead of being lost, together with the rest of the file.
+ * Blank lines are skipped.
+ *
+ * A valid line looks like "1. name - 00-01-35 | 95000", see HighscoreList.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+public class ScoreFileValidator {
+
+	/**
+	 * Receives the valid lines of the file:
+	 */
+	public interface Listener {
+
+		/**
+		 * @param name  : The user's alias
+		 * @param value : The score or the time in milliseconds
+		 */
+		void validLine(String name, long value);
+	}
+
+	/**
+	 * Constructor:
+	 *
+	 * @param file       : The text highscore file
+	 * @param quarantine : The file the bad lines are appended to, only created if
+	 *                   there are any
+	 */
+	public ScoreFileValidator(File file, File quarantine) {
+
+		this.file = file;
+		this.quarantine = quarantine;
+	}
+
+	/**
+	 * method: validate();
+	 *
+	 * Reads the whole file, handing the valid lines to the listener and moving the
+	 * bad ones to the quarantine file.
+	 *
+	 * @param listener : The listener
+	 */
+	public void validate(Listener listener) throws IOException {
+
+		validCount = 0;
+		rejectedCount = 0;
+
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+		BufferedWriter rejected = null;
+
+		try {
+
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+
+				if (line.trim().isEmpty()) continue;
+
+				String name = null;
+				long value = -1;
+
+				if (line.indexOf('|') >= 0 && line.indexOf(" - ") >= 0) {
+
+					try {
+
+						name = HighscoreList.parseName(line);
+						value = HighscoreList.parseScore(line);
+
+					} catch (RuntimeException e) {
+
+						name = null;
+					}
+				}
+
+				if (name != null && value >= 0) {
+
+					validCount++;
+					listener.validLine(name, value);
+
+				} else {
+
+					if (rejected == null) rejected = new BufferedWriter(
+							new OutputStreamWriter(new FileOutputStream(quarantine, true), StandardCharsets.UTF_8));
+
+					rejected.write(line);
+					rejected.newLine();
+
+					rejectedCount++;
+				}
+			}
+
+		} finally {
+
+			reader.close();
+
+			if (rejected != null) rejected.close();
+		}
+	}
+
+	/**
+	 * method: getValidCount();
+	 *
+	 * @return amount of valid lines found by the last validate()
+	 */
+	public int getValidCount() {
+
+		return validCount;
+	}
+
+	/**
+	 * method: getRejectedCount();
+	 *
+	 * @return amount of lines moved to the quarantine file by the last validate()
+	 */
+	public int getRejectedCount() {
+
+		return rejectedCount;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+
+		return file + ": " + validCount + " valid lines" + (rejectedCount > 0
+				? ", " + rejectedCount + " bad lines moved to " + quarantine : "");
+	}
+
+	private File file;
+	private File quarantine;
+
+	private int validCount;
+	private int rejectedCount;
+
+}
@@ -0,0 +1,601 @@
+/*
+ * File: Simulation.java
+ * ---------------------
+ * This class plays the game of breakout without drawing it. It moves the ball,
+ * the paddle and the runaway brick one fixed step at a time and keeps the
+ * result in a GameState. Everything random comes from one seeded generator,
+ * so the same seed and the same paddle input always play the same game.
+ *
+ * What happens during a step is reported to a SimulationListener, which is
+ * where Breakout starts its animations.
+ */
+
+import java.util.Random;
+
+public class Simulation implements BreakoutConstants {
+
+	/** Values of impactObject that aren't cells of the grid */
+	private static final int WALL = -1;
+	private static final int PADDLE = -2;
+	private static final int RUNAWAY_BRICK = -3;
+
+	/**
+	 * Constructor:
+	 *
+	 * @param seed     : Seed of the random generator
+	 * @param listener : Notified of the events of the game
+	 */
+	public Simulation(long seed, SimulationListener listener) {
+
+		this.random = new Random(seed);
+		this.listener = listener;
+
+	}
+
+	/**
+	 * method: newGame();
+	 *
+	 * Sets up a new game: a full grid of bricks, the paddle in the middle and all
+	 * the lives. The ball waits to be served.
+	 */
+	public void newGame() {
+
+		state = new GameState();
+
+		/* Amount of consecutive rows of the same color. Can't be zero. */
+		int sameColorRows = NBRICK_ROWS / NBRICK_COLORS;
+		sameColorRows += sameColorRows > 0 ? 0 : 1;
+
+		int mainRows = sameColorRows * NBRICK_COLORS;
+
+		for (int cell = 0; cell < BrickGrid.NCELLS; cell++) {
+
+			int row = cell / NBRICKS_PER_ROW;
+
+			int colorIndex = row < mainRows ? row / sameColorRows : NBRICK_COLORS - 1;
+
+			state.brickColors[cell] = colorIndex;
+			state.bricks.put(cell);
+
+			state.maxScore += scoreOf(colorIndex);
+		}
+
+		state.paddleX = state.previousPaddleX = (WIDTH - PADDLE_WIDTH) / 2;
+		paddleTarget = WIDTH / 2;
+
+		state.livesLeft = LIVES;
+		state.serving = true;
+	}
+
+	/**
+	 * method: newGame();
+	 *
+	 * Sets up a new game that starts the random generator over with the given
+	 * seed, so the game can be played again (see ReplayRecorder).
+	 *
+	 * @param seed : Seed of the random generator
+	 */
+	public void newGame(long seed) {
+
+		random.setSeed(seed);
+
+		newGame();
+	}
+
+	/**
+	 * method: serve();
+	 *
+	 * Puts the ball in the middle of the field and sends it down in a random
+	 * direction.
+	 */
+	public void serve() {
+
+		state.ballX = state.previousBallX = WIDTH / 2;
+		state.ballY = state.previousBallY = HEIGHT / 2;
+
+		state.velocityY = INITIAL_VELOCITY_Y;
+		state.velocityX = nextDouble(MIN_VELOCITY_X, MAX_VELOCITY_X) * (random.nextBoolean() ? 1 : -1);
+
+		state.serving = false;
+	}
+
+	/**
+	 * method: setPaddleTarget();
+	 *
+	 * Sets where the center of the paddle should be, the paddle moves there during
+	 * the next step. Targets too close to the walls are ignored, so the paddle
+	 * stays where it was.
+	 *
+	 * @param x : x coordinate of the center of the paddle
+	 */
+	public void setPaddleTarget(double x) {
+
+		if (isPaddleTarget(x)) paddleTarget = x;
+	}
+
+	/**
+	 * method: isPaddleTarget();
+	 *
+	 * @param x : x coordinate of the center of the paddle
+	 * @return true if the paddle can be centered there, false if it's too close
+	 *         to a wall
+	 */
+	public static boolean isPaddleTarget(double x) {
+
+		return x > PADDLE_WIDTH_HALF && x < WIDTH - PADDLE_WIDTH_HALF;
+	}
+
+	/**
+	 * method: movePaddleWhileServing();
+	 *
+	 * Moves the paddle straight to the target while the ball waits to be served,
+	 * when step() doesn't move anything. Does nothing once the ball is in play.
+	 *
+	 * @param x : x coordinate of the center of the paddle
+	 */
+	public void movePaddleWhileServing(double x) {
+
+		if (!state.serving) return;
+
+		setPaddleTarget(x);
+
+		state.paddleX = state.previousPaddleX = paddleTarget - PADDLE_WIDTH_HALF;
+	}
+
+	/**
+	 * method: step();
+	 *
+	 * Advances the game by one step. Does nothing while the ball waits to be
+	 * served or after the game is over.
+	 */
+	public void step() {
+
+		if (state.serving || state.isOver()) return;
+
+		state.previousBallX = state.ballX;
+		state.previousBallY = state.ballY;
+		state.previousPaddleX = state.paddleX;
+		state.previousRunawayX = state.runawayX;
+
+		movePaddle();
+		moveBall();
+
+		if (state.runawayCell != BrickGrid.NO_BRICK) moveRunawayBrick();
+
+		state.steps++;
+	}
+
+	/**
+	 * method: getState();
+	 *
+	 * @return the state of the current game
+	 */
+	public GameState getState() {
+
+		return state;
+	}
+
+	/**
+	 * method: movePaddle();
+	 *
+	 * Moves the paddle to its target.
+	 */
+	private void movePaddle() {
+
+		double dx = paddleTarget - PADDLE_WIDTH_HALF - state.paddleX;
+
+		state.paddleX += dx;
+
+		/* This way the paddle speed changes more gradually. */
+		state.paddleSpeed = (state.paddleSpeed + dx) / 2;
+	}
+
+	/**
+	 * method: moveBall();
+	 *
+	 * Moves the ball for one step. The path of the ball is swept against the
+	 * walls, the paddle and the bricks, the ball stops at the first impact, is
+	 * rebounded and continues with the rest of its movement, so it can bounce
+	 * several times during one step and never passes through anything.
+	 */
+	private void moveBall() {
+
+		double remainingTime = 1;
+
+		for (int i = 0; i < MAX_BOUNCES_PER_TICK && remainingTime > 0; i++) {
+
+			double dx = state.velocityX * remainingTime;
+			double dy = state.velocityY * remainingTime;
+
+			double impactTime = findImpact(state.ballX + BALL_RADIUS, state.ballY + BALL_RADIUS, dx, dy,
+					remainingTime);
+
+			if (impactTime == Collision.NO_COLLISION) {
+
+				state.ballX += dx;
+				state.ballY += dy;
+				break;
+			}
+
+			state.ballX += dx * impactTime;
+			state.ballY += dy * impactTime;
+
+			resolveImpact(dx, dy, remainingTime);
+
+			remainingTime *= 1 - impactTime;
+
+			if (state.isWon()) return;
+		}
+
+		checkBottomBorder();
+	}
+
+	/**
+	 * method: checkBottomBorder()
+	 *
+	 * Takes a life if the ball has crossed the bottom border.
+	 */
+	private void checkBottomBorder() {
+
+		if (state.ballY >= HEIGHT) {
+
+			state.livesLeft--;
+			state.serving = state.livesLeft > 0;
+
+			listener.lifeLost();
+		}
+	}
+
+	/**
+	 * method: findImpact();
+	 *
+	 * Finds the first thing the ball hits when moving along (dx, dy). Sets
+	 * impactObject to what was hit and impactNormal to the normal of the impact.
+	 *
+	 * @param x, y          : current center of the ball
+	 * @param dx, dy        : movement of the ball
+	 * @param remainingTime : part of the step the movement takes, the rest of
+	 *                      the step has passed already
+	 * @return time of impact in the range [0; 1] or Collision.NO_COLLISION
+	 */
+	private double findImpact(double x, double y, double dx, double dy, double remainingTime) {
+
+		double earliest = Collision.NO_COLLISION;
+		double time;
+
+		impactObject = WALL;
+
+		/* The walls, only approached walls can be hit. */
+		if (dx < 0 && x - BALL_RADIUS + dx <= 0) {
+
+			earliest = Math.max(x - BALL_RADIUS, 0) / -dx;
+			setImpactNormal(1, 0);
+
+		} else if (dx > 0 && x + BALL_RADIUS + dx >= WIDTH) {
+
+			earliest = Math.max(WIDTH - x - BALL_RADIUS, 0) / dx;
+			setImpactNormal(-1, 0);
+		}
+
+		if (dy < 0 && y - BALL_RADIUS + dy <= 0) {
+
+			time = Math.max(y - BALL_RADIUS, 0) / -dy;
+
+			if (earliest == Collision.NO_COLLISION || time < earliest) {
+
+				earliest = time;
+				setImpactNormal(0, 1);
+			}
+		}
+
+		time = Collision.sweepCircleVsRect(x, y, BALL_RADIUS, dx, dy, state.paddleX, GameState.PADDLE_Y,
+				PADDLE_WIDTH, PADDLE_HEIGHT, normal);
+
+		if (time != Collision.NO_COLLISION && (earliest == Collision.NO_COLLISION || time < earliest)) {
+
+			earliest = time;
+			impactObject = PADDLE;
+			setImpactNormal(normal[0], normal[1]);
+		}
+
+		/*
+		 * The runaway brick moves too, so the path is swept relative to it, from
+		 * where the brick is after the part of the step that has passed.
+		 */
+		if (state.runawayCell != BrickGrid.NO_BRICK && state.runawayLives > 0) {
+
+			double runawayX = state.runawayX + state.runawayVelocity * (1 - remainingTime);
+
+			time = Collision.sweepCircleVsRect(x, y, BALL_RADIUS, dx - state.runawayVelocity * remainingTime, dy,
+					runawayX, state.runawayY, BRICK_WIDTH, BRICK_HEIGHT, normal);
+
+			if (time != Collision.NO_COLLISION && (earliest == Collision.NO_COLLISION || time < earliest)) {
+
+				earliest = time;
+				impactObject = RUNAWAY_BRICK;
+				setImpactNormal(normal[0], normal[1]);
+			}
+		}
+
+		time = state.bricks.sweep(x, y, BALL_RADIUS, dx, dy, normal);
+
+		if (time != Collision.NO_COLLISION && (earliest == Collision.NO_COLLISION || time < earliest)) {
+
+			earliest = time;
+			impactObject = state.bricks.getHitCell();
+			setImpactNormal(normal[0], normal[1]);
+		}
+
+		return earliest;
+	}
+
+	/**
+	 * method: setImpactNormal();
+	 *
+	 * Saves the normal of the impact found by findImpact().
+	 *
+	 * @param x, y : The normal vector
+	 */
+	private void setImpactNormal(double x, double y) {
+
+		impactNormal[0] = x;
+		impactNormal[1] = y;
+	}
+
+	/**
+	 * method: resolveImpact();
+	 *
+	 * Rebounds the ball off whatever findImpact() found. If collision was with a
+	 * brick, it increases the score and removes the brick. The rebound happens
+	 * differently for walls/paddle/bricks.
+	 *
+	 * @param dx, dy        : movement of the ball that was swept
+	 * @param remainingTime : part of the step the movement takes
+	 */
+	private void resolveImpact(double dx, double dy, double remainingTime) {
+
+		if (impactObject == WALL) {
+
+			/* The walls reflect the ball. */
+			if (impactNormal[0] != 0) state.velocityX = -state.velocityX;
+			else state.velocityY = -state.velocityY;
+
+		} else if (impactObject == PADDLE) {
+
+			reboundPaddle(Collision.contactAngle(impactNormal[0], impactNormal[1], state.velocityX, state.velocityY));
+
+		} else if (impactObject == RUNAWAY_BRICK) {
+
+			reboundRunawayBrick(Collision.contactAngle(impactNormal[0], impactNormal[1],
+					dx - state.runawayVelocity * remainingTime, dy));
+
+		} else {
+
+			reboundBrick(Collision.contactAngle(impactNormal[0], impactNormal[1], state.velocityX, state.velocityY));
+			destroyBrick(impactObject);
+		}
+	}
+
+	/**
+	 * method: reboundPaddle();
+	 *
+	 * This method bounces the ball, but it's only called if the paddle was hit.
+	 *
+	 * @param angleOfCollision : side of the ball that hit the paddle
+	 */
+	private void reboundPaddle(int angleOfCollision) {
+
+		if (angleOfCollision == 270) {
+
+			state.velocityY = -Math.abs(state.velocityY);
+
+			fancyRebound(state.ballX);
+
+			listener.paddleHit();
+
+		} else if (angleOfCollision == 90) state.velocityY = Math.abs(state.velocityY);
+		else state.velocityX = Math.abs(state.velocityX) * (angleOfCollision == 0 ? -1 : 1);
+	}
+
+	/**
+	 * method: fancyRebound();
+	 *
+	 * This method changes the ball's horizontal speed, based on where it hit the
+	 * paddle and how fast the paddle was moving.
+	 *
+	 * @param x : current x coordinate of the ball
+	 */
+	private void fancyRebound(double x) {
+
+		double paddleX = state.paddleX;
+
+		/* Horizontal distances between the opposite sides of the object. */
+		double leftMargin = x + BALL_DIAMETER - paddleX;
+		double rightMargin = paddleX + PADDLE_WIDTH - x;
+
+		/* Horizontal direction of the ball (positive/negative). */
+		int direction = state.velocityX > 0 ? 1 : -1;
+
+		if (direction > 0 && leftMargin <= PADDLE_EDGE_WIDTH) cornerRebound(leftMargin, direction);
+		else if (direction < 0 && rightMargin <= PADDLE_EDGE_WIDTH) cornerRebound(rightMargin, direction);
+		else speedRebound();
+	}
+
+	/**
+	 * method: cornerRebound();
+	 *
+	 * This method changes the horizontal speed based on where it hit the paddle's
+	 * corner.
+	 *
+	 * @param margin    : |(x of ball) - (x of paddle)|
+	 * @param direction : direction of the ball's horizontal velocity
+	 */
+	private void cornerRebound(double margin, int direction) {
+
+		double newVelocity = MAX_VELOCITY_X * (PADDLE_EDGE_WIDTH - margin) / PADDLE_EDGE_WIDTH;
+
+		if (newVelocity > MIN_VELOCITY_X) state.velocityX = newVelocity * -direction;
+		else state.velocityX = MIN_VELOCITY_X * -direction;
+	}
+
+	/**
+	 * method: speedRebound()
+	 *
+	 * Changes the balls horizontal velocity according to what the paddle's speed
+	 * was when it hit.
+	 */
+	private void speedRebound() {
+
+		double paddleSpeed = state.paddleSpeed;
+		double reboundedBallSpeed = MAX_VELOCITY_X * paddleSpeed / MAX_PADDLE_SPEED;
+
+		if (Math.abs(reboundedBallSpeed) > MIN_VELOCITY_X) {
+
+			if (Math.abs(paddleSpeed) >= MAX_PADDLE_SPEED) state.velocityX = MAX_VELOCITY_X * (paddleSpeed > 0 ? 1 : -1);
+			else state.velocityX = reboundedBallSpeed;
+		}
+	}
+
+	/**
+	 * method: reboundBrick();
+	 *
+	 * Changes the balls velocity according to what side of the ball was hit.
+	 * Generally it reverses the vertical velocity if the collision was from the
+	 * top/bottom, otherwise it reverses the horizontal velocity.
+	 *
+	 * @param angleOfCollision (approximate)
+	 */
+	private void reboundBrick(int angleOfCollision) {
+
+		if (angleOfCollision % 180 == 90) state.velocityY *= -1;
+		else state.velocityX *= -1;
+
+		if (Math.abs(state.velocityY) < MAX_VELOCITY_Y) state.velocityY *= ACCELERATION_Y;
+	}
+
+	/**
+	 * method: reboundRunawayBrick();
+	 *
+	 * A version of the reboundBrick() for the final brick, which also keeps track
+	 * of the brick's lives. After a hit the brick can't lose another life for
+	 * RUNAWAY_BRICK_HIT_COOLDOWN steps.
+	 *
+	 * @param angleOfCollision : angle at which the ball hit the brick
+	 */
+	private void reboundRunawayBrick(int angleOfCollision) {
+
+		if (state.runawayCooldown == 0) {
+
+			state.runawayLives--;
+			state.runawayCooldown = RUNAWAY_BRICK_HIT_COOLDOWN;
+
+			/* A hit from the side also reverses the brick. */
+			if (angleOfCollision % 180 != 90) state.runawayVelocity *= -1;
+
+			listener.runawayBrickHit(angleOfCollision);
+
+			if (state.runawayLives == 0) destroyBrick(state.runawayCell);
+		}
+
+		reboundBrick(angleOfCollision);
+	}
+
+	/**
+	 * method: destroyBrick();
+	 *
+	 * Removes a brick and adds its score.
+	 *
+	 * @param cell : The cell of the brick
+	 */
+	private void destroyBrick(int cell) {
+
+		state.score += scoreOf(state.brickColors[cell]);
+
+		state.bricks.remove(cell);
+
+		listener.brickDestroyed(cell);
+
+		checkForLastBrick();
+	}
+
+	/**
+	 * method: checkForLastBrick();
+	 *
+	 * The runaway brick is chosen here: when only one brick is left in the grid,
+	 * it's the runaway brick. The grid counts its bricks, so this is a comparison
+	 * and a search through a couple of bitset words.
+	 */
+	private void checkForLastBrick() {
+
+		if (state.runawayCell == BrickGrid.NO_BRICK && state.bricks.count() == 1) {
+
+			int cell = state.bricks.first();
+
+			state.runawayCell = cell;
+			state.runawayX = state.previousRunawayX = BrickGrid.getX(cell);
+			state.runawayY = BrickGrid.getY(cell);
+			state.runawayVelocity = RUNAWAY_BRICK_VELOCITY;
+			state.runawayLives = RUNAWAY_BRICK_LIVES;
+			state.runawayCooldown = RUNAWAY_BRICK_HIT_COOLDOWN;
+
+			/* The runaway brick leaves its cell, so it is checked separately. */
+			state.bricks.remove(cell);
+
+			listener.runawayBrickChosen(cell);
+		}
+	}
+
+	/**
+	 * method: moveRunawayBrick()
+	 *
+	 * Moves the last brick horizontally at a fixed speed. The brick will sometimes
+	 * change directions at random.
+	 */
+	private void moveRunawayBrick() {
+
+		double x = state.runawayX;
+
+		if (x < 0 || x + BRICK_WIDTH > WIDTH) state.runawayVelocity *= -1;
+		else if (nextDouble(0.0, 100.0) < RUNAWAY_BRICK_REVERSE_CHANCE) state.runawayVelocity *= -1;
+
+		state.runawayX += state.runawayVelocity;
+
+		if (state.runawayCooldown > 0) state.runawayCooldown--;
+	}
+
+	/**
+	 * method: scoreOf();
+	 *
+	 * @param colorIndex : index of the brick's color in BRICK_COLORS
+	 * @return the score for destroying a brick of that color
+	 */
+	private static int scoreOf(int colorIndex) {
+
+		return 2 * NBRICK_COLORS - colorIndex;
+	}
+
+	/**
+	 * method: nextDouble();
+	 *
+	 * @return a random number in the range [min; max)
+	 */
+	private double nextDouble(double min, double max) {
+
+		return min + (max - min) * random.nextDouble();
+	}
+
+	private Random random;
+
+	private SimulationListener listener;
+
+	private GameState state = new GameState();
+
+	private volatile double paddleTarget = WIDTH / 2;
+
+	/** What findImpact() found: WALL, PADDLE, RUNAWAY_BRICK or a cell */
+	private int impactObject;
+
+	private double[] impactNormal = new double[2];
+	private double[] normal = new double[2];
+
+}
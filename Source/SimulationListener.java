@@ -0,0 +1,51 @@
+/*
+ * File: SimulationListener.java
+ * ---------------------
+ * This interface is notified of the events of a Simulation, so whoever draws
+ * the game can play the matching animations.
+ */
+
+public interface SimulationListener {
+
+	/**
+	 * method: paddleHit();
+	 *
+	 * Called when the ball bounces off the top of the paddle.
+	 */
+	public void paddleHit();
+
+	/**
+	 * method: brickDestroyed();
+	 *
+	 * Called when a brick is destroyed and its score was added.
+	 *
+	 * @param cell : The cell of the brick
+	 */
+	public void brickDestroyed(int cell);
+
+	/**
+	 * method: runawayBrickChosen();
+	 *
+	 * Called when the last brick starts running away.
+	 *
+	 * @param cell : The cell of the brick
+	 */
+	public void runawayBrickChosen(int cell);
+
+	/**
+	 * method: runawayBrickHit();
+	 *
+	 * Called when the runaway brick loses a life.
+	 *
+	 * @param angle : side of the ball that hit the brick (0, 90, 180 or 270)
+	 */
+	public void runawayBrickHit(int angle);
+
+	/**
+	 * method: lifeLost();
+	 *
+	 * Called when the ball falls past the paddle.
+	 */
+	public void lifeLost();
+
+}
@@ -0,0 +1,185 @@
+/*
+ * File: SpriteAtlas.java
+ * ---------------------
+ * This class packs the sprites of breakout into one image, created in the
+ * format of the screen so it can be drawn without conversion. Every sprite is
+ * a view into that image, so drawing the bricks, the ball and the paddle only
+ * ever copies parts of a single image.
+ */
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class SpriteAtlas {
+
+	/** Width of the atlas image, sprites are packed in rows (shelves) of this width */
+	private static final int ATLAS_WIDTH = 256;
+
+	/** Empty pixels around every sprite, so scaled drawing can't bleed into a neighbour */
+	private static final int PADDING = 1;
+
+	/**
+	 * method: add();
+	 *
+	 * Adds a sprite to the atlas. Has no effect after build().
+	 *
+	 * @param path   : Path of the image file
+	 * @param width  : Width of the sprite in pixels
+	 * @param height : Height of the sprite in pixels
+	 */
+	public void add(String path, int width, int height) {
+
+		for (Sprite sprite : sprites) {
+
+			if (sprite.path.equals(path) && sprite.width == width && sprite.height == height) return;
+
+		}
+
+		sprites.add(new Sprite(path, width, height));
+
+	}
+
+	/**
+	 * method: build();
+	 *
+	 * Packs the sprites, draws them into the atlas image and hands the views of
+	 * the atlas to the SpriteCache.
+	 */
+	public void build() {
+
+		int height = pack();
+
+		BufferedImage image = createImage(Math.max(ATLAS_WIDTH, widest()), Math.max(height, 1));
+
+		Graphics2D g = image.createGraphics();
+
+		for (Sprite sprite : sprites) {
+
+			g.drawImage(SpriteCache.get(sprite.path, sprite.width, sprite.height), sprite.x, sprite.y, null);
+
+		}
+
+		g.dispose();
+
+		for (Sprite sprite : sprites) {
+
+			Image view = image.getSubimage(sprite.x, sprite.y, sprite.width, sprite.height);
+
+			SpriteCache.put(sprite.path, sprite.width, sprite.height, view);
+
+		}
+
+	}
+
+	/**
+	 * method: pack();
+	 *
+	 * Places the sprites on shelves, tallest first: a sprite goes to the right of
+	 * the previous one, or onto a new shelf if it doesn't fit.
+	 *
+	 * @return the height of all the shelves
+	 */
+	private int pack() {
+
+		List<Sprite> order = new ArrayList<Sprite>(sprites);
+
+		Collections.sort(order, new Comparator<Sprite>() {
+
+			public int compare(Sprite a, Sprite b) {
+
+				return b.height - a.height;
+
+			}
+
+		});
+
+		int atlasWidth = Math.max(ATLAS_WIDTH, widest());
+		int x = 0, y = 0, shelfHeight = 0;
+
+		for (Sprite sprite : order) {
+
+			if (x + sprite.width + 2 * PADDING > atlasWidth) {
+
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+
+			}
+
+			sprite.x = x + PADDING;
+			sprite.y = y + PADDING;
+
+			x += sprite.width + 2 * PADDING;
+			shelfHeight = Math.max(shelfHeight, sprite.height + 2 * PADDING);
+
+		}
+
+		return y + shelfHeight;
+
+	}
+
+	/**
+	 * method: widest();
+	 *
+	 * @return the width of the widest sprite including its padding
+	 */
+	private int widest() {
+
+		int widest = 0;
+
+		for (Sprite sprite : sprites) widest = Math.max(widest, sprite.width + 2 * PADDING);
+
+		return widest;
+
+	}
+
+	/**
+	 * method: createImage();
+	 *
+	 * Creates a translucent image compatible with the screen, or a plain ARGB
+	 * image if there is no screen.
+	 *
+	 * @param width, height : Size of the image
+	 * @return the image
+	 */
+	private static BufferedImage createImage(int width, int height) {
+
+		if (GraphicsEnvironment.isHeadless()) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+
+	}
+
+	/**
+	 * A sprite in the atlas and its place in the atlas image.
+	 */
+	private static class Sprite {
+
+		public Sprite(String path, int width, int height) {
+
+			this.path = path;
+			this.width = width;
+			this.height = height;
+
+		}
+
+		private String path;
+		private int width;
+		private int height;
+
+		private int x;
+		private int y;
+
+	}
+
+	private List<Sprite> sprites = new ArrayList<Sprite>();
+
+}
@@ -0,0 +1,152 @@
+/*
+ * File: SpriteCache.java
+ * ---------------------
+ * This class loads the images used in breakout. Every image file is decoded
+ * only once and every size of it is scaled only once, after that the same
+ * Image is handed out to everyone who asks for it.
+ */
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import acm.util.ErrorException;
+
+public final class SpriteCache {
+
+	private SpriteCache() {
+
+	}
+
+	/**
+	 * method: get();
+	 *
+	 * Returns the image at the given path, scaled to the given size. The returned
+	 * image is shared, so it must not be drawn on.
+	 *
+	 * @param path   : Path of the image file
+	 * @param width  : Width of the sprite in pixels
+	 * @param height : Height of the sprite in pixels
+	 * @return the scaled image
+	 */
+	public static Image get(String path, int width, int height) {
+
+		String key = key(path, width, height);
+
+		Image sprite = sprites.get(key);
+
+		if (sprite == null) {
+
+			sprite = scale(decode(path), width, height);
+
+			Image previous = sprites.putIfAbsent(key, sprite);
+
+			if (previous != null) sprite = previous;
+
+		}
+
+		return sprite;
+
+	}
+
+	/**
+	 * method: put();
+	 *
+	 * Stores a ready made sprite, get() will return it for the given path and
+	 * size from now on. Used for the sprites of the SpriteAtlas.
+	 *
+	 * @param path   : Path of the image file
+	 * @param width  : Width of the sprite in pixels
+	 * @param height : Height of the sprite in pixels
+	 * @param sprite : The sprite
+	 */
+	public static void put(String path, int width, int height, Image sprite) {
+
+		sprites.put(key(path, width, height), sprite);
+
+	}
+
+	/**
+	 * method: key();
+	 *
+	 * @return the key of a sprite in the sprites map
+	 */
+	private static String key(String path, int width, int height) {
+
+		return path + '@' + width + 'x' + height;
+
+	}
+
+	/**
+	 * method: decode();
+	 *
+	 * Returns the image at the given path in its original size, reading the file
+	 * if it hasn't been read yet.
+	 *
+	 * @param path : Path of the image file
+	 * @return the decoded image
+	 */
+	private static BufferedImage decode(String path) {
+
+		BufferedImage image = originals.get(path);
+
+		if (image == null) {
+
+			try {
+
+				image = ImageIO.read(new File(path));
+
+			} catch (IOException e) {
+
+				throw new ErrorException(e);
+
+			}
+
+			if (image == null) throw new ErrorException("Cannot decode image " + path);
+
+			originals.putIfAbsent(path, image);
+
+		}
+
+		return image;
+
+	}
+
+	/**
+	 * method: scale();
+	 *
+	 * Returns a copy of the image scaled to the given size.
+	 *
+	 * @param image  : The original image
+	 * @param width  : Width of the copy
+	 * @param height : Height of the copy
+	 * @return the scaled copy
+	 */
+	private static BufferedImage scale(BufferedImage image, int width, int height) {
+
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		Graphics2D g = scaled.createGraphics();
+
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.drawImage(image, 0, 0, width, height, null);
+		g.dispose();
+
+		return scaled;
+
+	}
+
+	/** Decoded image files by path */
+	private static Map<String, BufferedImage> originals = new ConcurrentHashMap<String, BufferedImage>();
+
+	/** Scaled images by path and size */
+	private static Map<String, Image> sprites = new ConcurrentHashMap<String, Image>();
+
+}
@@ -0,0 +1,62 @@
+/*
+ * File: UnitCircle.java
+ * ---------------------
+ * This class keeps the vertices of the regular polygons of the score emblem on
+ * the unit circle. They are computed once per amount of sides, after that a
+ * vertex of a polygon of any size only takes a multiplication and an addition.
+ *
+ * The tables are shared and must not be changed.
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class UnitCircle {
+
+	private UnitCircle() {
+
+	}
+
+	/**
+	 * method: polygon();
+	 *
+	 * Returns the vertices of a regular polygon drawn inside the unit circle,
+	 * starting at the top and going clockwise on the screen: x of vertex i at
+	 * index 2 * i, y at 2 * i + 1.
+	 *
+	 * @param sides : Sides of the polygon
+	 * @return the shared table of the vertices
+	 */
+	public static double[] polygon(int sides) {
+
+		double[] vertices = POLYGONS.get(sides);
+
+		if (vertices == null) {
+
+			vertices = new double[2 * sides];
+
+			double angleStep = 2 * Math.PI / sides;
+
+			for (int i = 0; i < sides; i++) {
+
+				double angle = -Math.PI / 2 + i * angleStep;
+
+				vertices[2 * i] = Math.cos(angle);
+				vertices[2 * i + 1] = Math.sin(angle);
+
+			}
+
+			double[] known = POLYGONS.putIfAbsent(sides, vertices);
+
+			if (known != null) vertices = known;
+
+		}
+
+		return vertices;
+
+	}
+
+	/** Vertices of the polygons asked for so far, by amount of sides */
+	private static final Map<Integer, double[]> POLYGONS = new ConcurrentHashMap<Integer, double[]>();
+
+}